@@ -0,0 +1,268 @@
+package com.simpleplugins.simplertp;
+
+import com.simpleplugins.simplertp.bench.SimPlayer;
+import com.simpleplugins.simplertp.bench.SimServer;
+import com.simpleplugins.simplertp.bench.SimWorld;
+import com.simpleplugins.simplertp.bench.Terrain;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Headless load test: a burst of /rtp requests against the real plugin, running on a
+ * {@link SimServer} in virtual ticks with injected chunk-load latency.
+ * <p>
+ * Every player runs /rtp once, spread evenly over burst-ticks. The run ends when every request has
+ * ended or after max-ticks. Reported are the request latency percentiles (in ticks of 50 ms), the
+ * main-thread time the plugin took per tick, chunk loads per teleport and the failure rate.
+ * <p>
+ * Arguments are key=value pairs, see {@link #DEFAULTS}; keys starting with "config." override
+ * config.yml, e.g. {@code config.scheduler.chunk-loads-per-tick=8}.
+ */
+public final class LoadSimulator {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "players", "200",
+            "burst-ticks", "20",
+            "warmup-ticks", "0",
+            "max-ticks", "6000",
+            "terrain", "OCEAN",
+            "load-latency", "1-3",
+            "generate-latency", "5-15",
+            "base-mspt", "20",
+            "async-threads", "4",
+            "seed", "42");
+
+    private LoadSimulator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        Map<String, Object> overrides = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            if (key.startsWith("config.")) {
+                overrides.put(key.substring("config.".length()), parseValue(value));
+            } else if (DEFAULTS.containsKey(key)) {
+                options.put(key, value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + key + ", expected one of " + DEFAULTS.keySet());
+            }
+        }
+
+        int playerCount = Integer.parseInt(options.get("players"));
+        int burstTicks = Math.max(1, Integer.parseInt(options.get("burst-ticks")));
+        int warmupTicks = Integer.parseInt(options.get("warmup-ticks"));
+        int maxTicks = Integer.parseInt(options.get("max-ticks"));
+        Terrain terrain = Terrain.valueOf(options.get("terrain").toUpperCase());
+        long seed = Long.parseLong(options.get("seed"));
+
+        File plugins = Files.createTempDirectory("simplertp-sim").resolve("plugins").toFile();
+        File dataFolder = new File(plugins, "SimpleRTP");
+        writeConfigs(plugins, dataFolder, overrides);
+
+        SimServer server = new SimServer(Double.parseDouble(options.get("base-mspt")),
+                Integer.parseInt(options.get("async-threads")));
+        Bukkit.setServer(server.server());
+        SimWorld world = new SimWorld(server, "world", terrain, 60_000_000, range(options.get("load-latency")),
+                range(options.get("generate-latency")), seed);
+        server.addWorld(world);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        List<SimPlayer> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            Location spawn = new Location(world.world(), random.nextInt(-200, 200), 64, random.nextInt(-200, 200));
+            SimPlayer player = new SimPlayer(server, "Player" + i, spawn);
+            players.add(player);
+            server.addPlayer(player);
+        }
+
+        PluginDescriptionFile description;
+        try (InputStream in = SimpleRTP.class.getResourceAsStream("/plugin.yml")) {
+            description = new PluginDescriptionFile(in);
+        }
+        @SuppressWarnings("removal")
+        JavaPluginLoader loader = new JavaPluginLoader(server.server());
+        SimpleRTP plugin = new SimpleRTP(loader, description, dataFolder, new File(plugins, "SimpleRTP.jar"));
+        server.registerCommands(plugin, description.getCommands().keySet());
+        plugin.onLoad();
+        plugin.onEnable();
+        PluginCommand rtp = plugin.getCommand("rtp");
+
+        for (int i = 0; i < warmupTicks; i++) {
+            server.tick(() -> {
+            });
+        }
+
+        long firstTick = server.currentTick();
+        long[] tickNanos = new long[maxTicks];
+        int ticks = 0;
+        int issued = 0;
+        while (ticks < maxTicks && (issued < playerCount || !allDone(players))) {
+            // Requests due up to and including this tick of the burst
+            int due = (int) Math.min(playerCount, (long) playerCount * (ticks + 1) / burstTicks);
+            int from = issued;
+            issued = Math.max(issued, due);
+            int to = issued;
+            tickNanos[ticks++] = server.tick(() -> {
+                for (int i = from; i < to; i++) {
+                    SimPlayer player = players.get(i);
+                    player.requested(server.currentTick());
+                    try {
+                        rtp.getExecutor().onCommand(player.player(), rtp, "rtp", new String[0]);
+                    } catch (RuntimeException e) {
+                        server.logger().warning("/rtp failed: " + e);
+                    }
+                }
+            });
+        }
+
+        boolean preloading = plugin.getSettings().preload().enabled();
+        plugin.onDisable();
+        server.shutdown();
+        report(options, players, Arrays.copyOf(tickNanos, ticks), world, server.currentTick() - firstTick);
+
+        // Every teleport preloads its destination first, so a run without tickets means preloads failed
+        boolean teleported = players.stream().anyMatch(player -> "success".equals(player.outcome()));
+        if (preloading && teleported && world.tickets() == 0) {
+            throw new IllegalStateException("Players were teleported but no preload chunk ticket was taken");
+        }
+    }
+
+    private static void writeConfigs(File plugins, File dataFolder, Map<String, Object> overrides) throws Exception {
+        // bStats would otherwise start submitting
+        File bStats = new File(plugins, "bStats");
+        if (!bStats.mkdirs() || !dataFolder.mkdirs()) {
+            throw new IllegalStateException("Could not create " + plugins);
+        }
+        YamlConfiguration metrics = new YamlConfiguration();
+        metrics.set("enabled", false);
+        metrics.set("serverUuid", UUID.randomUUID().toString());
+        metrics.save(new File(bStats, "config.yml"));
+
+        YamlConfiguration config;
+        try (InputStream in = SimpleRTP.class.getResourceAsStream("/config.yml")) {
+            config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        config.set("check-updates", false);
+        // Tagged messages tell the simulated players how their request ended
+        config.set("prefix", "");
+        config.set("message-delivery", "chat");
+        for (String key : config.getConfigurationSection("messages").getKeys(false)) {
+            config.set("messages." + key, SimPlayer.MESSAGE_TAG + key);
+        }
+        overrides.forEach(config::set);
+        config.save(new File(dataFolder, "config.yml"));
+    }
+
+    private static void report(Map<String, String> options, List<SimPlayer> players, long[] tickNanos, SimWorld world,
+                               long ticks) {
+        int success = 0;
+        int failed = 0;
+        int rejected = 0;
+        int unfinished = 0;
+        List<Long> latencies = new ArrayList<>();
+        for (SimPlayer player : players) {
+            String outcome = player.outcome();
+            if (outcome == null) {
+                unfinished++;
+                continue;
+            }
+            switch (outcome) {
+                case "success" -> {
+                    success++;
+                    latencies.add(player.latencyTicks());
+                }
+                case "failed" -> failed++;
+                default -> rejected++;
+            }
+        }
+        long[] sortedLatencies = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] sortedNanos = tickNanos.clone();
+        Arrays.sort(sortedNanos);
+        double meanNanos = Arrays.stream(tickNanos).average().orElse(0);
+        int requests = players.size();
+
+        System.out.printf("SimpleRTP load simulation: %d players over %s ticks, %s terrain, chunk load %s ticks, generation %s ticks%n",
+                requests, options.get("burst-ticks"), options.get("terrain"), options.get("load-latency"),
+                options.get("generate-latency"));
+        System.out.printf("Requests:     %d teleported, %d failed, %d rejected, %d unfinished after %d ticks%n",
+                success, failed, rejected, unfinished, ticks);
+        System.out.printf("Failure rate: %.1f%% (failed, rejected or unfinished)%n",
+                requests == 0 ? 0.0 : 100.0 * (requests - success) / requests);
+        System.out.printf("Latency:      p50 %d ms, p90 %d ms, p99 %d ms, max %d ms%n",
+                percentile(sortedLatencies, 0.50) * 50, percentile(sortedLatencies, 0.90) * 50,
+                percentile(sortedLatencies, 0.99) * 50, percentile(sortedLatencies, 1.0) * 50);
+        System.out.printf("Main thread:  mean %.3f ms/tick, p99 %.3f ms, max %.3f ms%n",
+                meanNanos / 1e6, percentile(sortedNanos, 0.99) / 1e6, percentile(sortedNanos, 1.0) / 1e6);
+        System.out.printf("Chunk loads:  %d (%d generated), %.1f per teleport, %d chunk tickets%n",
+                world.loads(), world.generations(), success == 0 ? 0.0 : (double) world.loads() / success,
+                world.tickets());
+    }
+
+    private static boolean allDone(List<SimPlayer> players) {
+        for (SimPlayer player : players) {
+            if (player.outcome() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nearest-rank percentile of a sorted array; 0 when empty.
+     */
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    /**
+     * "min-max" or a single value, in ticks.
+     */
+    private static int[] range(String value) {
+        String[] parts = value.split("-", 2);
+        int min = Integer.parseInt(parts[0].trim());
+        int max = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : min;
+        return new int[]{Math.max(0, min), Math.max(min, max)};
+    }
+
+    private static Object parseValue(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ignored) {
+        }
+        return value;
+    }
+}
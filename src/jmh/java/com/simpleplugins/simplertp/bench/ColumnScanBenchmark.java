@@ -0,0 +1,72 @@
+package com.simpleplugins.simplertp.bench;
+
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.search.ColumnScanner;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking one column against a snapshot ({@link ColumnScanner#findStandingY}) per terrain
+ * and safety rule set. This is the work done off the main thread for every candidate column.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnScanBenchmark {
+
+    private static final int CHUNKS = 64;
+    private static final int COLUMNS = 4096;
+
+    @Param({"OCEAN", "MOUNTAIN", "NETHER"})
+    public Terrain terrain;
+
+    /** Whether hazards next to the feet and floor are checked as well. */
+    @Param({"false", "true"})
+    public boolean neighbours;
+
+    private ColumnScanner.Bounds bounds;
+    private SyntheticChunk[] chunks;
+    private int[] columns;
+    private int next;
+
+    @Setup
+    public void setup() {
+        RTPSettings settings = StandIns.settings(Map.of("search.safety.check-neighbours", neighbours));
+        World world = StandIns.world(terrain, 60_000_000);
+        bounds = ColumnScanner.Bounds.of(world, settings);
+
+        SplittableRandom random = new SplittableRandom(42);
+        chunks = new SyntheticChunk[CHUNKS];
+        for (int i = 0; i < CHUNKS; i++) {
+            chunks[i] = new SyntheticChunk(terrain, random.nextInt(-300, 300), random.nextInt(-300, 300));
+        }
+        // chunk index << 8 | local x << 4 | local z
+        columns = new int[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            columns[i] = random.nextInt(CHUNKS) << 8 | random.nextInt(256);
+        }
+    }
+
+    @Benchmark
+    public int findStandingY() {
+        int column = columns[next++ & (COLUMNS - 1)];
+        return ColumnScanner.findStandingY(chunks[column >>> 8], bounds, (column >> 4) & 15, column & 15);
+    }
+}
@@ -0,0 +1,72 @@
+package com.simpleplugins.simplertp.bench;
+
+import com.simpleplugins.simplertp.economy.VaultEconomy;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls into a Vault economy through {@link VaultEconomy}'s bound method handles, against the
+ * per-call reflective lookup and invoke they replaced. The provider is a stand-in that answers
+ * immediately, so only the call overhead is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EconomyBenchmark {
+
+    private Object provider;
+    private VaultEconomy economy;
+    private OfflinePlayer player;
+
+    @Setup
+    public void setup() {
+        provider = StandIns.proxy(Economy.class, Map.of(
+                "getBalance", args -> 1000.0,
+                "hasAccount", args -> true,
+                "withdrawPlayer", args -> new EconomyResponse((double) args[1], 1000.0, EconomyResponse.ResponseType.SUCCESS, null),
+                "depositPlayer", args -> new EconomyResponse((double) args[1], 1000.0, EconomyResponse.ResponseType.SUCCESS, null)));
+        economy = VaultEconomy.resolve(provider, StandIns.LOGGER);
+        player = StandIns.player("Bench");
+    }
+
+    @Benchmark
+    public boolean handleHasEnough() {
+        return economy.hasEnough(player, 100.0);
+    }
+
+    @Benchmark
+    public boolean handleWithdraw() {
+        return economy.withdraw(player, 100.0);
+    }
+
+    @Benchmark
+    public boolean reflectiveHasEnough() throws ReflectiveOperationException {
+        Method getBalance = provider.getClass().getMethod("getBalance", OfflinePlayer.class);
+        return (double) getBalance.invoke(provider, player) >= 100.0;
+    }
+
+    @Benchmark
+    public boolean reflectiveWithdraw() throws ReflectiveOperationException {
+        Method withdraw = provider.getClass().getMethod("withdrawPlayer", OfflinePlayer.class, double.class);
+        Object response = withdraw.invoke(provider, player, 100.0);
+        return (boolean) response.getClass().getMethod("transactionSuccess").invoke(response);
+    }
+}
@@ -0,0 +1,59 @@
+package com.simpleplugins.simplertp.bench;
+
+import com.simpleplugins.simplertp.config.MessageTemplate;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering a configured message per send: the prebuilt {@link MessageTemplate}s against the
+ * per-send replace and legacy deserialization they replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+
+    private static final String PREFIX = "&7[&6SimpleRTP&7] &r";
+    private static final String SUCCESS = "&aTeleported successfully!";
+    private static final String COOLDOWN = "&cYou must wait %seconds% seconds before using /rtp again";
+
+    private MessageTemplate success;
+    private MessageTemplate cooldown;
+
+    @Setup
+    public void setup() {
+        success = MessageTemplate.compile(PREFIX + SUCCESS);
+        cooldown = MessageTemplate.compile(PREFIX + COOLDOWN);
+    }
+
+    @Benchmark
+    public Component templateConstant() {
+        return success.render();
+    }
+
+    @Benchmark
+    public Component templatePlaceholder() {
+        return cooldown.render("seconds", "42");
+    }
+
+    @Benchmark
+    public Component legacyPerSend() {
+        String text = (PREFIX + COOLDOWN).replace("%seconds%", "42").replace('&', '\u00A7');
+        return LegacyComponentSerializer.legacySection().deserialize(text);
+    }
+}
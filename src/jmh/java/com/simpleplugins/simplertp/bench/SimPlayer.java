@@ -0,0 +1,106 @@
+package com.simpleplugins.simplertp.bench;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An online player for the load simulator that records how its /rtp request ended.
+ * <p>
+ * The simulator configures every message as {@value #MESSAGE_TAG} followed by the message key, so
+ * the outcome is read from the messages the plugin sends: the first terminal message (success,
+ * failure or rejection) ends the request. Teleports always succeed.
+ */
+public final class SimPlayer {
+
+    /** Prefix of every message text in the simulator's config. */
+    public static final String MESSAGE_TAG = "sim:";
+
+    /** Message keys that end a request, other than success and failed. */
+    private static final Set<String> REJECTIONS = Set.of("queue-full", "in-progress", "cooldown");
+
+    private final SimServer server;
+    private final Player player;
+
+    private volatile Location location;
+    private long requestTick = -1;
+    private long doneTick = -1;
+    private String outcome;
+
+    public SimPlayer(SimServer server, String name, Location location) {
+        this.server = server;
+        this.location = location;
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        Map<String, StandIns.Answer> answers = new HashMap<>();
+        answers.put("getName", args -> name);
+        answers.put("getUniqueId", args -> uuid);
+        answers.put("getWorld", args -> this.location.getWorld());
+        answers.put("getLocation", args -> this.location.clone());
+        answers.put("hasPermission", args -> "srtp.rtp".equals(args[0]));
+        answers.put("isOnline", args -> true);
+        answers.put("teleportAsync", args -> {
+            this.location = (Location) args[0];
+            return CompletableFuture.completedFuture(true);
+        });
+        answers.put("sendMessage", args -> received(args));
+        answers.put("sendActionBar", args -> received(args));
+        answers.put("playSound", args -> null);
+        this.player = StandIns.proxy(Player.class, answers);
+    }
+
+    public Player player() {
+        return player;
+    }
+
+    /**
+     * Marks the tick the player ran /rtp in.
+     */
+    public synchronized void requested(long tick) {
+        requestTick = tick;
+    }
+
+    /**
+     * "success", "failed", "rejected", or null while the request is still running.
+     */
+    public synchronized String outcome() {
+        return outcome;
+    }
+
+    /**
+     * Ticks from the request to its outcome.
+     */
+    public synchronized long latencyTicks() {
+        return doneTick - requestTick;
+    }
+
+    private Object received(Object[] args) {
+        for (Object arg : args) {
+            String text = arg instanceof Component component
+                    ? PlainTextComponentSerializer.plainText().serialize(component)
+                    : arg instanceof String string ? string : null;
+            if (text != null && text.startsWith(MESSAGE_TAG)) {
+                String key = text.substring(MESSAGE_TAG.length()).split(" ", 2)[0];
+                if (key.equals("success") || key.equals("failed")) {
+                    finish(key);
+                } else if (REJECTIONS.contains(key)) {
+                    finish("rejected");
+                }
+            }
+        }
+        return null;
+    }
+
+    private synchronized void finish(String result) {
+        if (outcome == null && requestTick >= 0) {
+            outcome = result;
+            doneTick = server.currentTick();
+        }
+    }
+}
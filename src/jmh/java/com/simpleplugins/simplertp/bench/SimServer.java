@@ -0,0 +1,304 @@
+package com.simpleplugins.simplertp.bench;
+
+import org.bukkit.Server;
+import org.bukkit.UnsafeValues;
+import org.bukkit.World;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.ServicesManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * A headless {@link Server} running in virtual ticks, for the load simulator.
+ * <p>
+ * The thread that creates it is the main thread. Each {@link #tick} runs the due synchronous tasks
+ * and the due chunk loads of every {@link SimWorld}, measures how long that took, then waits until
+ * all asynchronous tasks have finished before the next tick starts. Asynchronous tasks run on a real
+ * thread pool, so the measured main-thread time is what the plugin costs a server per tick, while
+ * latencies are counted in ticks and do not depend on the speed of the machine.
+ */
+public final class SimServer {
+
+    /** Ticks Paper averages the tick time over for {@code getAverageTickTime()}. */
+    private static final int AVERAGE_WINDOW = 100;
+
+    private final Thread mainThread = Thread.currentThread();
+    private final Logger logger = Logger.getLogger("SimpleRTP-Sim");
+    private final double baseMspt;
+    private final ExecutorService asyncPool;
+    private final AtomicInteger asyncRunning = new AtomicInteger();
+    private final PriorityQueue<SimTask> tasks = new PriorityQueue<>();
+    private final ConcurrentLinkedQueue<SimTask> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nextTaskId = new AtomicInteger(1);
+    private final Map<String, SimWorld> worlds = new LinkedHashMap<>();
+    private final Map<UUID, SimPlayer> players = new LinkedHashMap<>();
+    private final Map<String, PluginCommand> commands = new HashMap<>();
+    private final double[] recentMspt = new double[AVERAGE_WINDOW];
+    private final Server server;
+    private final BukkitScheduler scheduler;
+
+    private volatile long currentTick;
+
+    /**
+     * @param baseMspt   tick time of the rest of the server, added to the measured plugin time for
+     *                   {@code getAverageTickTime()}
+     * @param asyncThreads size of the pool asynchronous tasks run on
+     */
+    public SimServer(double baseMspt, int asyncThreads) {
+        this.baseMspt = baseMspt;
+        this.asyncPool = Executors.newFixedThreadPool(asyncThreads, runnable -> {
+            Thread thread = new Thread(runnable, "SimpleRTP-Sim-Async");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Arrays.fill(recentMspt, baseMspt);
+        this.scheduler = StandIns.lenient(BukkitScheduler.class, Map.of(
+                "runTask", args -> schedule(args, 0, -1, false),
+                "runTaskLater", args -> schedule(args, (long) args[2], -1, false),
+                "runTaskTimer", args -> schedule(args, (long) args[2], (long) args[3], false),
+                "runTaskAsynchronously", args -> schedule(args, 0, -1, true),
+                "runTaskLaterAsynchronously", args -> schedule(args, (long) args[2], -1, true),
+                "runTaskTimerAsynchronously", args -> schedule(args, (long) args[2], (long) args[3], true)));
+        UnsafeValues unsafe = StandIns.lenient(UnsafeValues.class, Map.of());
+        ServicesManager services = StandIns.lenient(ServicesManager.class, Map.of());
+        Map<String, StandIns.Answer> answers = new HashMap<>();
+        answers.put("getName", args -> "SimpleRTP-Sim");
+        answers.put("getVersion", args -> "sim");
+        answers.put("getBukkitVersion", args -> "1.21.1-R0.1-SNAPSHOT");
+        answers.put("getLogger", args -> logger);
+        answers.put("getScheduler", args -> scheduler);
+        answers.put("getUnsafe", args -> unsafe);
+        answers.put("getServicesManager", args -> services);
+        answers.put("isPrimaryThread", args -> Thread.currentThread() == mainThread);
+        answers.put("getAverageTickTime", args -> averageTickTime());
+        answers.put("getOnlinePlayers", args -> onlinePlayers());
+        answers.put("getWorlds", args -> worlds.values().stream().map(SimWorld::world).toList());
+        answers.put("getWorld", args -> world(args[0]));
+        answers.put("getPlayer", args -> player(args[0]));
+        answers.put("getPluginCommand", args -> commands.get((String) args[0]));
+        this.server = StandIns.lenient(Server.class, answers);
+    }
+
+    public Server server() {
+        return server;
+    }
+
+    public Logger logger() {
+        return logger;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public void addWorld(SimWorld world) {
+        worlds.put(world.world().getName(), world);
+    }
+
+    public void addPlayer(SimPlayer player) {
+        players.put(player.player().getUniqueId(), player);
+    }
+
+    /**
+     * Registers the plugin's commands (from plugin.yml) so {@code getCommand} finds them.
+     */
+    public void registerCommands(Plugin plugin, Collection<String> names) throws ReflectiveOperationException {
+        Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+        constructor.setAccessible(true);
+        for (String name : names) {
+            commands.put(name, constructor.newInstance(name, plugin));
+        }
+    }
+
+    /**
+     * Runs one tick: first the given work (e.g. commands issued this tick), then the due chunk loads
+     * and synchronous tasks. Returns the main-thread time of the tick in nanoseconds, after all
+     * asynchronous work it started has finished.
+     */
+    public long tick(Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        for (SimWorld world : worlds.values()) {
+            world.completeLoads(currentTick);
+        }
+        drainScheduled();
+        while (!tasks.isEmpty() && tasks.peek().due <= currentTick) {
+            SimTask task = tasks.poll();
+            if (task.cancelled) {
+                continue;
+            }
+            if (task.async) {
+                runAsync(task.runnable);
+            } else {
+                runSync(task.runnable);
+            }
+            if (task.period > 0 && !task.cancelled) {
+                task.due += task.period;
+                tasks.add(task);
+            }
+            drainScheduled();
+        }
+        long nanos = System.nanoTime() - start;
+        recentMspt[(int) (currentTick % AVERAGE_WINDOW)] = baseMspt + nanos / 1_000_000.0;
+        awaitAsync();
+        currentTick++;
+        return nanos;
+    }
+
+    /**
+     * Stops the asynchronous pool. Call after the plugin was disabled.
+     */
+    public void shutdown() throws InterruptedException {
+        awaitAsync();
+        asyncPool.shutdown();
+        asyncPool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private BukkitTask schedule(Object[] args, long delay, long period, boolean async) {
+        SimTask task = new SimTask(nextTaskId.getAndIncrement(), (Plugin) args[0], (Runnable) args[1], async);
+        // Like the Bukkit scheduler, a delay of 0 means the next tick
+        task.due = currentTick + Math.max(1, delay);
+        task.period = period < 0 ? -1 : Math.max(1, period);
+        if (async && delay <= 0 && period < 0) {
+            runAsync(task.runnable);
+        } else {
+            scheduled.add(task);
+        }
+        return task;
+    }
+
+    private void drainScheduled() {
+        SimTask task;
+        while ((task = scheduled.poll()) != null) {
+            tasks.add(task);
+        }
+    }
+
+    private void runSync(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (Throwable t) {
+            logger.warning("Task failed: " + t);
+        }
+    }
+
+    private void runAsync(Runnable runnable) {
+        asyncRunning.incrementAndGet();
+        asyncPool.execute(() -> {
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                logger.warning("Asynchronous task failed: " + t);
+            } finally {
+                asyncRunning.decrementAndGet();
+            }
+        });
+    }
+
+    private void awaitAsync() {
+        while (asyncRunning.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private double averageTickTime() {
+        double sum = 0;
+        for (double mspt : recentMspt) {
+            sum += mspt;
+        }
+        return sum / recentMspt.length;
+    }
+
+    private Collection<Player> onlinePlayers() {
+        List<Player> online = new ArrayList<>(players.size());
+        for (SimPlayer player : players.values()) {
+            online.add(player.player());
+        }
+        return online;
+    }
+
+    private World world(Object key) {
+        for (SimWorld world : worlds.values()) {
+            if (key.equals(world.world().getName()) || key.equals(world.world().getUID())) {
+                return world.world();
+            }
+        }
+        return null;
+    }
+
+    private Player player(Object key) {
+        for (SimPlayer player : players.values()) {
+            if (key.equals(player.player().getName()) || key.equals(player.player().getUniqueId())) {
+                return player.player();
+            }
+        }
+        return null;
+    }
+
+    private static final class SimTask implements BukkitTask, Comparable<SimTask> {
+        final int id;
+        final Plugin owner;
+        final Runnable runnable;
+        final boolean async;
+        long due;
+        long period;
+        volatile boolean cancelled;
+
+        SimTask(int id, Plugin owner, Runnable runnable, boolean async) {
+            this.id = id;
+            this.owner = owner;
+            this.runnable = runnable;
+            this.async = async;
+        }
+
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return owner;
+        }
+
+        @Override
+        public boolean isSync() {
+            return !async;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public int compareTo(SimTask other) {
+            int byDue = Long.compare(due, other.due);
+            return byDue != 0 ? byDue : Integer.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.simpleplugins.simplertp.bench;
+
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A synthetic {@link Terrain} world for the load simulator whose chunk loads complete after an
+ * injected latency in ticks: the first load of a chunk pays the generation latency, later loads
+ * the (shorter) load latency. Loads complete on the main thread, as on Paper.
+ * <p>
+ * Chunks stay loaded once their load completed; nothing is unloaded. Chunk loads and plugin chunk
+ * tickets are counted. Only touched on the main thread.
+ */
+public final class SimWorld {
+
+    private final SimServer server;
+    private final Terrain terrain;
+    private final int[] loadLatency;
+    private final int[] generateLatency;
+    private final SplittableRandom random;
+    private final Set<Long> generated = new HashSet<>();
+    private final Set<Long> loaded = new HashSet<>();
+    private final PriorityQueue<PendingLoad> pending = new PriorityQueue<>();
+    private final World world;
+
+    private long loads;
+    private long generations;
+    private long tickets;
+
+    /**
+     * @param loadLatency     min and max ticks to load an already generated chunk
+     * @param generateLatency min and max ticks to generate a chunk
+     */
+    public SimWorld(SimServer server, String name, Terrain terrain, double borderSize, int[] loadLatency,
+                    int[] generateLatency, long seed) {
+        this.server = server;
+        this.terrain = terrain;
+        this.loadLatency = loadLatency;
+        this.generateLatency = generateLatency;
+        this.random = new SplittableRandom(seed);
+        Map<String, StandIns.Answer> answers = StandIns.worldAnswers(terrain, name, borderSize);
+        answers.put("getChunkAtAsync", args -> load((int) args[0], (int) args[1]));
+        answers.put("isChunkGenerated", args -> generated.contains(key((int) args[0], (int) args[1])));
+        answers.put("isChunkLoaded", args -> loaded.contains(key((int) args[0], (int) args[1])));
+        answers.put("addPluginChunkTicket", args -> {
+            tickets++;
+            return true;
+        });
+        answers.put("removePluginChunkTicket", args -> true);
+        answers.put("removePluginChunkTickets", args -> null);
+        this.world = StandIns.proxy(World.class, answers);
+    }
+
+    public World world() {
+        return world;
+    }
+
+    /** Chunk loads requested so far, including those that generated the chunk. */
+    public long loads() {
+        return loads;
+    }
+
+    /** Chunk loads that had to generate the chunk. */
+    public long generations() {
+        return generations;
+    }
+
+    /** Plugin chunk tickets added so far. */
+    public long tickets() {
+        return tickets;
+    }
+
+    /**
+     * Completes the loads that are due in the given tick.
+     */
+    void completeLoads(long tick) {
+        while (!pending.isEmpty() && pending.peek().due <= tick) {
+            PendingLoad load = pending.poll();
+            loaded.add(key(load.chunkX, load.chunkZ));
+            load.future.complete(chunk(load.chunkX, load.chunkZ));
+        }
+    }
+
+    private CompletableFuture<Chunk> load(int chunkX, int chunkZ) {
+        loads++;
+        int[] latency = loadLatency;
+        if (generated.add(key(chunkX, chunkZ))) {
+            generations++;
+            latency = generateLatency;
+        }
+        CompletableFuture<Chunk> future = new CompletableFuture<>();
+        long due = server.currentTick() + random.nextInt(latency[0], latency[1] + 1);
+        pending.add(new PendingLoad(due, loads, chunkX, chunkZ, future));
+        return future;
+    }
+
+    private Chunk chunk(int chunkX, int chunkZ) {
+        return StandIns.proxy(Chunk.class, Map.of(
+                "getX", args -> chunkX,
+                "getZ", args -> chunkZ,
+                "getWorld", args -> world,
+                "getChunkSnapshot", args -> new SyntheticChunk(terrain, chunkX, chunkZ)));
+    }
+
+    private static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private record PendingLoad(long due, long order, int chunkX, int chunkZ, CompletableFuture<Chunk> future)
+            implements Comparable<PendingLoad> {
+        @Override
+        public int compareTo(PendingLoad other) {
+            int byDue = Long.compare(due, other.due);
+            return byDue != 0 ? byDue : Long.compare(order, other.order);
+        }
+    }
+}
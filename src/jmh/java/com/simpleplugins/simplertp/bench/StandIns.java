@@ -0,0 +1,171 @@
+package com.simpleplugins.simplertp.bench;
+
+import com.simpleplugins.simplertp.config.RTPSettings;
+import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.block.Biome;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.generator.BiomeProvider;
+import org.bukkit.generator.WorldInfo;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Minimal stand-ins for the Bukkit objects the benchmarked code touches. The interfaces are large,
+ * so they are implemented as dynamic proxies that answer the few methods used and reject the rest;
+ * none of them is called in a measured hot loop.
+ */
+public final class StandIns {
+
+    public static final Logger LOGGER = Logger.getLogger("SimpleRTP-Bench");
+
+    private StandIns() {
+    }
+
+    /**
+     * A world of the given terrain with a square world border of the given size around 0,0.
+     */
+    public static World world(Terrain terrain, double borderSize) {
+        return proxy(World.class, worldAnswers(terrain, terrain.name().toLowerCase(), borderSize));
+    }
+
+    /**
+     * The answers behind {@link #world}, for stand-ins that answer more of the world.
+     */
+    public static Map<String, Answer> worldAnswers(Terrain terrain, String name, double borderSize) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes());
+        WorldBorder border = proxy(WorldBorder.class, Map.of(
+                "getSize", args -> borderSize,
+                "getCenter", args -> new Location(null, 0, 0, 0),
+                "isInside", args -> {
+                    Location loc = (Location) args[0];
+                    return Math.abs(loc.getX()) < borderSize / 2 && Math.abs(loc.getZ()) < borderSize / 2;
+                }));
+        BiomeProvider biomes = new BiomeProvider() {
+            @Override
+            public Biome getBiome(WorldInfo worldInfo, int x, int y, int z) {
+                return terrain.biomeAt(x, z);
+            }
+
+            @Override
+            public List<Biome> getBiomes(WorldInfo worldInfo) {
+                return List.of(Biome.values());
+            }
+        };
+        return new HashMap<>(Map.of(
+                "getName", args -> name,
+                "getUID", args -> uid,
+                "getEnvironment", args -> terrain.environment(),
+                "getMinHeight", args -> terrain.minY(),
+                "getMaxHeight", args -> terrain.maxY(),
+                "getSeaLevel", args -> 63,
+                "getWorldBorder", args -> border,
+                "getBiomeProvider", args -> null,
+                "vanillaBiomeProvider", args -> biomes));
+    }
+
+    public static OfflinePlayer player(String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        return proxy(OfflinePlayer.class, Map.of(
+                "getName", args -> name,
+                "getUniqueId", args -> uuid));
+    }
+
+    /**
+     * Settings parsed from the plugin defaults plus the given overrides (config paths to values).
+     */
+    public static RTPSettings settings(Map<String, Object> overrides) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("radius", 5000);
+        config.set("messages.success", "&aTeleported successfully!");
+        config.set("messages.cooldown", "&cYou must wait %seconds% seconds before using /rtp again");
+        config.set("messages.queued", "&7You are number &e%position% &7in the RTP queue");
+        overrides.forEach(config::set);
+        return RTPSettings.from(config, LOGGER);
+    }
+
+    /**
+     * Implements an interface by method name; any other method throws.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T proxy(Class<T> type, Map<String, Answer> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Answer answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                case "toString" -> type.getSimpleName() + " stand-in";
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+
+    /**
+     * Implements an interface by method name; any other method returns the zero value of its
+     * return type (null, false, 0 or an empty collection).
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T lenient(Class<T> type, Map<String, Answer> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Answer answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                case "toString" -> type.getSimpleName() + " stand-in";
+                default -> zero(method.getReturnType());
+            };
+        });
+    }
+
+    private static Object zero(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == float.class) {
+            return 0.0f;
+        } else if (type == double.class) {
+            return 0.0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == String.class) {
+            return "";
+        } else if (type == Optional.class) {
+            return Optional.empty();
+        } else if (Set.class.isAssignableFrom(type)) {
+            return Set.of();
+        } else if (Collection.class.isAssignableFrom(type)) {
+            return List.of();
+        } else if (Map.class.isAssignableFrom(type)) {
+            return Map.of();
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    public interface Answer {
+        Object apply(Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,121 @@
+package com.simpleplugins.simplertp.bench;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * {@link ChunkSnapshot} stand-in backed by a {@link Terrain}. Column surfaces are computed once
+ * per chunk; blocks are derived on each read, which is about as cheap as the palette lookup of a
+ * real snapshot.
+ */
+public final class SyntheticChunk implements ChunkSnapshot {
+
+    private final Terrain terrain;
+    private final int chunkX;
+    private final int chunkZ;
+    private final int[] surfaces = new int[256];
+
+    public SyntheticChunk(Terrain terrain, int chunkX, int chunkZ) {
+        this.terrain = terrain;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                surfaces[x << 4 | z] = terrain.surface((chunkX << 4) + x, (chunkZ << 4) + z);
+            }
+        }
+    }
+
+    @Override
+    public int getX() {
+        return chunkX;
+    }
+
+    @Override
+    public int getZ() {
+        return chunkZ;
+    }
+
+    @Override
+    public String getWorldName() {
+        return terrain.name().toLowerCase();
+    }
+
+    @Override
+    public Material getBlockType(int x, int y, int z) {
+        if (y < terrain.minY() || y >= terrain.maxY()) {
+            return Material.VOID_AIR;
+        }
+        return terrain.blockAt((chunkX << 4) + x, y, (chunkZ << 4) + z, surfaces[x << 4 | z]);
+    }
+
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @Deprecated
+    public int getData(int x, int y, int z) {
+        return 0;
+    }
+
+    @Override
+    public int getBlockSkyLight(int x, int y, int z) {
+        return 15;
+    }
+
+    @Override
+    public int getBlockEmittedLight(int x, int y, int z) {
+        return 0;
+    }
+
+    @Override
+    public int getHighestBlockYAt(int x, int z) {
+        return terrain.highest(surfaces[x << 4 | z]);
+    }
+
+    @Override
+    @Deprecated
+    public Biome getBiome(int x, int z) {
+        return terrain.biomeAt((chunkX << 4) + x, (chunkZ << 4) + z);
+    }
+
+    @Override
+    public Biome getBiome(int x, int y, int z) {
+        return getBiome(x, z);
+    }
+
+    @Override
+    @Deprecated
+    public double getRawBiomeTemperature(int x, int z) {
+        return 0.8;
+    }
+
+    @Override
+    public double getRawBiomeTemperature(int x, int y, int z) {
+        return 0.8;
+    }
+
+    @Override
+    public long getCaptureFullTime() {
+        return 0;
+    }
+
+    @Override
+    public boolean isSectionEmpty(int sy) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(BlockData block) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean contains(Biome biome) {
+        throw new UnsupportedOperationException();
+    }
+}
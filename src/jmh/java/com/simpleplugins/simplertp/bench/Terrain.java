@@ -0,0 +1,128 @@
+package com.simpleplugins.simplertp.bench;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+
+/**
+ * Deterministic synthetic terrain for the benchmarks, computed from hashed value noise so no
+ * server or world files are needed. Each type stresses a different part of the search:
+ * <ul>
+ *     <li>{@link #OCEAN}: about two thirds of the columns are water, so most candidates fail</li>
+ *     <li>{@link #MOUNTAIN}: mostly safe, high surfaces with powder snow peaks and lava pools</li>
+ *     <li>{@link #NETHER}: bedrock roof, netherrack with caves and a lava sea below Y 32</li>
+ * </ul>
+ */
+public enum Terrain {
+
+    OCEAN(World.Environment.NORMAL, -64, 320),
+    MOUNTAIN(World.Environment.NORMAL, -64, 320),
+    NETHER(World.Environment.NETHER, 0, 256);
+
+    private static final int SEA_LEVEL = 63;
+    private static final int NETHER_ROOF = 127;
+    private static final int NETHER_LAVA_LEVEL = 31;
+
+    private final World.Environment environment;
+    private final int minY;
+    private final int maxY;
+
+    Terrain(World.Environment environment, int minY, int maxY) {
+        this.environment = environment;
+        this.minY = minY;
+        this.maxY = maxY;
+    }
+
+    public World.Environment environment() {
+        return environment;
+    }
+
+    public int minY() {
+        return minY;
+    }
+
+    public int maxY() {
+        return maxY;
+    }
+
+    /**
+     * Y of the top terrain block of the column (before water is added).
+     */
+    public int surface(int x, int z) {
+        return switch (this) {
+            case OCEAN -> 30 + (int) (noise(x, z, 64, 1) * 50);
+            case MOUNTAIN -> 70 + (int) (noise(x, z, 96, 2) * 110 + noise(x, z, 12, 3) * 20);
+            case NETHER -> NETHER_ROOF;
+        };
+    }
+
+    /**
+     * Y returned by getHighestBlockYAt for the column.
+     */
+    public int highest(int surface) {
+        return this == OCEAN ? Math.max(surface, SEA_LEVEL) : surface;
+    }
+
+    public Material blockAt(int x, int y, int z, int surface) {
+        switch (this) {
+            case OCEAN -> {
+                if (y < surface) return Material.STONE;
+                if (y == surface) return surface >= SEA_LEVEL ? Material.GRASS_BLOCK : Material.SAND;
+                return y <= SEA_LEVEL ? Material.WATER : Material.AIR;
+            }
+            case MOUNTAIN -> {
+                if (y < surface) return Material.STONE;
+                if (y == surface) {
+                    if (surface > 170) return Material.POWDER_SNOW;
+                    return noise(x, z, 8, 4) > 0.92 ? Material.LAVA : Material.GRASS_BLOCK;
+                }
+                return Material.AIR;
+            }
+            default -> {
+                if (y <= 0 || y >= NETHER_ROOF) return y > NETHER_ROOF ? Material.AIR : Material.BEDROCK;
+                if (isNetherCave(x, y, z)) return y <= NETHER_LAVA_LEVEL ? Material.LAVA : Material.AIR;
+                return Material.NETHERRACK;
+            }
+        }
+    }
+
+    public Biome biomeAt(int x, int z) {
+        return switch (this) {
+            case OCEAN -> surface(x, z) < SEA_LEVEL ? Biome.OCEAN : Biome.PLAINS;
+            case MOUNTAIN -> surface(x, z) > 170 ? Biome.JAGGED_PEAKS : Biome.MEADOW;
+            case NETHER -> Biome.NETHER_WASTES;
+        };
+    }
+
+    /**
+     * Blocky caves: open in about 40% of 8x4x8 cells.
+     */
+    private static boolean isNetherCave(int x, int y, int z) {
+        return hash(x >> 3, (y >> 2) * 31 + (z >> 3), 5) < 0.4;
+    }
+
+    /**
+     * Bilinear value noise in [0, 1) on a lattice of the given scale.
+     */
+    private static double noise(int x, int z, int scale, int seed) {
+        int cellX = Math.floorDiv(x, scale);
+        int cellZ = Math.floorDiv(z, scale);
+        double fx = (x - cellX * (double) scale) / scale;
+        double fz = (z - cellZ * (double) scale) / scale;
+        double a = hash(cellX, cellZ, seed);
+        double b = hash(cellX + 1, cellZ, seed);
+        double c = hash(cellX, cellZ + 1, seed);
+        double d = hash(cellX + 1, cellZ + 1, seed);
+        double top = a + (b - a) * fx;
+        double bottom = c + (d - c) * fx;
+        return top + (bottom - top) * fz;
+    }
+
+    private static double hash(int x, int z, int seed) {
+        long h = x * 0x9E3779B97F4A7C15L ^ z * 0xC2B2AE3D27D4EB4FL ^ seed * 0x165667B19E3779F9L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (h >>> 11) * 0x1.0p-53;
+    }
+}
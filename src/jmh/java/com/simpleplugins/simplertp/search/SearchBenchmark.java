@@ -0,0 +1,117 @@
+package com.simpleplugins.simplertp.search;
+
+import com.simpleplugins.simplertp.bench.StandIns;
+import com.simpleplugins.simplertp.bench.SyntheticChunk;
+import com.simpleplugins.simplertp.bench.Terrain;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One complete search as {@link SafeLocationFinder} runs it (sampler, then
+ * {@link SafeLocationFinder#scanChunk} per candidate chunk) without the asynchronous chunk loading,
+ * per terrain, sampling strategy and safety rule set.
+ * <p>
+ * Besides throughput, the {@code attempts}, {@code successes} and {@code failures} counters are
+ * reported; attempts / successes is the number of candidate chunks (i.e. chunk loads on a live
+ * server) needed per found location.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    /** Synthetic chunks kept between searches, standing in for chunks that are already loaded. */
+    private static final int MAX_CACHED_CHUNKS = 4096;
+
+    @Param({"OCEAN", "MOUNTAIN", "NETHER"})
+    public Terrain terrain;
+
+    @Param({"halton", "random"})
+    public String sequence;
+
+    @Param({"square", "disk"})
+    public String shape;
+
+    /** Whether hazards next to the feet and floor are checked as well. */
+    @Param({"false", "true"})
+    public boolean neighbours;
+
+    private ColumnScanner.Bounds bounds;
+    private SafeLocationFinder.SearchArea area;
+    private final Map<Long, SyntheticChunk> chunks = new HashMap<>();
+    private final int[] sample = new int[2];
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long attempts;
+        public long successes;
+        public long failures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            attempts = 0;
+            successes = 0;
+            failures = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        RTPSettings settings = StandIns.settings(Map.of(
+                "search.sequence", sequence,
+                "search.shape", shape,
+                "search.safety.check-neighbours", neighbours));
+        World world = StandIns.world(terrain, 60_000_000);
+        bounds = ColumnScanner.Bounds.of(world, settings);
+        HaltonSequence halton = settings.haltonSampling() ? new HaltonSequence() : null;
+        area = new SafeLocationFinder.SearchArea(
+                new CandidateSampler(settings, halton, world, 0, 0, settings.radius()),
+                settings.columnsPerChunk());
+    }
+
+    @Benchmark
+    public int[] search(Counters counters) {
+        for (int attempt = 1; attempt <= SafeLocationFinder.MAX_ATTEMPTS; attempt++) {
+            area.sampler().next(sample);
+            int[] found = SafeLocationFinder.scanChunk(chunk(sample[0] >> 4, sample[1] >> 4), bounds, area,
+                    sample[0], sample[1]);
+            if (found != null) {
+                counters.attempts += attempt;
+                counters.successes++;
+                return found;
+            }
+        }
+        counters.attempts += SafeLocationFinder.MAX_ATTEMPTS;
+        counters.failures++;
+        return null;
+    }
+
+    private SyntheticChunk chunk(int chunkX, int chunkZ) {
+        if (chunks.size() >= MAX_CACHED_CHUNKS) {
+            chunks.clear();
+        }
+        long key = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+        return chunks.computeIfAbsent(key, k -> new SyntheticChunk(terrain, chunkX, chunkZ));
+    }
+}
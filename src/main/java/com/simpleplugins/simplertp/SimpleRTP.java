@@ -1,27 +1,94 @@
 package com.simpleplugins.simplertp;
 
+import com.simpleplugins.simplertp.cache.DestinationCache;
 import com.simpleplugins.simplertp.command.RTPCommand;
 import com.simpleplugins.simplertp.command.SrtpCommand;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.cooldown.CooldownStore;
+import com.simpleplugins.simplertp.economy.EconomyService;
+import com.simpleplugins.simplertp.economy.VaultEconomy;
+import com.simpleplugins.simplertp.metrics.LatencyHistogram;
+import com.simpleplugins.simplertp.metrics.RtpMetrics;
+import com.simpleplugins.simplertp.pool.LocationPool;
+import com.simpleplugins.simplertp.pregen.PregenService;
+import com.simpleplugins.simplertp.preload.DestinationPreloader;
+import com.simpleplugins.simplertp.scheduler.RtpScheduler;
+import com.simpleplugins.simplertp.search.RejectionTracker;
+import com.simpleplugins.simplertp.search.SafeLocationFinder;
+import com.simpleplugins.simplertp.search.SpacingIndex;
 import org.bstats.bukkit.Metrics;
+import org.bstats.charts.SimplePie;
+import org.bstats.charts.SingleLineChart;
 import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
 
 public final class SimpleRTP extends JavaPlugin {
 
-    private Object economyProvider;
+    private volatile RTPSettings settings;
+    private volatile VaultEconomy economy;
+    private EconomyService economyService;
     private Metrics metrics;
+    private final RtpMetrics rtpMetrics = new RtpMetrics();
+    private long reportedRequests;
+    private RtpScheduler rtpScheduler;
+    private RejectionTracker rejectionTracker;
+    private SpacingIndex spacingIndex;
+    private SafeLocationFinder locationFinder;
+    private LocationPool locationPool;
+    private DestinationCache destinationCache;
+    private CooldownStore cooldownStore;
+    private DestinationPreloader destinationPreloader;
+    private PregenService pregenService;
+
+    public SimpleRTP() {
+    }
+
+    /**
+     * Test constructor, like JavaPlugin's own: creates the plugin outside of a server's plugin
+     * class loader, for the headless load simulator in the benchmark sources.
+     */
+    @SuppressWarnings("removal")
+    SimpleRTP(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
         ConfigUpdater.mergeWithDefaults(this);
+        reloadSettings();
         refreshEconomy();
+        economyService = new EconomyService(this);
+        cooldownStore = new CooldownStore(this);
+        cooldownStore.load();
+        cooldownStore.start(settings);
+
+        rtpScheduler = new RtpScheduler(this);
+        rtpScheduler.start(settings);
+        rejectionTracker = new RejectionTracker(this);
+        rejectionTracker.start(settings);
+        spacingIndex = new SpacingIndex(this);
+        spacingIndex.start(settings);
+        locationFinder = new SafeLocationFinder(this, rejectionTracker, spacingIndex, rtpMetrics, rtpScheduler);
+        destinationCache = new DestinationCache(this, locationFinder);
+        destinationCache.start(settings);
+        locationPool = new LocationPool(this, locationFinder, destinationCache);
+        locationPool.start(settings);
+        destinationPreloader = new DestinationPreloader(this, rtpScheduler.preloads());
+        destinationPreloader.start(settings);
+        pregenService = new PregenService(this, locationFinder, locationPool, destinationCache);
+        pregenService.start(settings);
 
         // bStats metrics
         int pluginId = 29587;
         metrics = new Metrics(this, pluginId);
+        if (getConfig().getBoolean("stats.bstats-charts", true)) {
+            addCustomCharts();
+        }
 
         getCommand("rtp").setExecutor(new RTPCommand(this));
         getCommand("srtp").setExecutor(new SrtpCommand(this));
@@ -31,29 +98,102 @@ public final class SimpleRTP extends JavaPlugin {
         }
     }
 
+    @Override
+    public void onDisable() {
+        // Fails queued and running requests first, so their refunds reach the economy service
+        if (rtpScheduler != null) {
+            rtpScheduler.shutdown();
+        }
+        if (pregenService != null) {
+            pregenService.stop();
+        }
+        if (locationPool != null) {
+            locationPool.stop();
+        }
+        if (destinationCache != null) {
+            destinationCache.stop();
+        }
+        if (destinationPreloader != null) {
+            destinationPreloader.stop();
+        }
+        if (rejectionTracker != null) {
+            rejectionTracker.save();
+        }
+        if (spacingIndex != null) {
+            spacingIndex.stop();
+        }
+        if (economyService != null) {
+            economyService.shutdown();
+        }
+        if (cooldownStore != null) {
+            cooldownStore.stop();
+            cooldownStore.saveIfDirty();
+        }
+    }
+
+    /**
+     * RTP requests since the last submission, and the typical time of a whole request. Read on the
+     * bStats thread; the metrics are thread-safe.
+     */
+    private void addCustomCharts() {
+        metrics.addCustomChart(new SingleLineChart("rtp_requests", () -> {
+            long requests = rtpMetrics.all().count(RtpMetrics.Counter.REQUESTS);
+            // A reset through /srtp stats reset starts counting from zero again
+            long delta = requests >= reportedRequests ? requests - reportedRequests : requests;
+            reportedRequests = requests;
+            return (int) Math.min(Integer.MAX_VALUE, delta);
+        }));
+        metrics.addCustomChart(new SimplePie("rtp_time", () -> {
+            LatencyHistogram total = rtpMetrics.all().phase(RtpMetrics.Phase.TOTAL);
+            if (total.count() == 0) {
+                return null;
+            }
+            long millis = total.percentileMicros(0.5) / 1000;
+            if (millis < 500) {
+                return "< 0.5 s";
+            } else if (millis < 1000) {
+                return "0.5 - 1 s";
+            } else if (millis < 3000) {
+                return "1 - 3 s";
+            } else if (millis < 10000) {
+                return "3 - 10 s";
+            }
+            return "> 10 s";
+        }));
+    }
+
     /**
-     * Sends a config message to the sender (prefix + message key), with & color codes translated to section sign.
+     * Sends a config message to the sender (prefix + message key) in chat, prerendered at the last reload.
      */
     public void sendConfigMessage(CommandSender sender, String messageKey) {
-        String prefix = getConfig().getString("prefix", "");
-        String msg = getConfig().getString("messages." + messageKey, "&7[" + messageKey + "]");
-        String text = (prefix != null && !prefix.isEmpty()) ? prefix + msg : msg;
-        text = text.replace('&', '\u00A7');
-        Component component = LegacyComponentSerializer.legacySection().deserialize(text);
-        sender.sendMessage(component);
+        settings.messages().sendChat(sender, messageKey);
     }
 
     /**
-     * Loads the Vault economy provider if available (reflection, no direct Vault dependency).
-     * Call after reloadConfig() to refresh.
+     * Parses the current config into a new {@link RTPSettings} and publishes it. Call after reloadConfig().
+     */
+    public void reloadSettings() {
+        settings = RTPSettings.from(getConfig(), getLogger());
+    }
+
+    /**
+     * Current settings snapshot. Read it once per operation so all values come from the same reload.
+     */
+    public RTPSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Loads the Vault economy provider if available (no direct Vault dependency) and binds its
+     * methods once. Call after reloadConfig() to refresh.
      */
     public void refreshEconomy() {
-        economyProvider = null;
+        economy = null;
         try {
             Class<?> economyClass = Class.forName("net.milkbowl.vault.economy.Economy");
             var rsp = getServer().getServicesManager().getRegistration(economyClass);
             if (rsp != null) {
-                economyProvider = rsp.getProvider();
+                economy = VaultEconomy.resolve(rsp.getProvider(), getLogger());
             }
         } catch (ClassNotFoundException ignored) {
             // Vault not installed
@@ -61,10 +201,83 @@ public final class SimpleRTP extends JavaPlugin {
     }
 
     /**
-     * Vault economy provider (null if no Vault/economy). Use with VaultEconomyHelper.
+     * Vault economy (null if no Vault/economy).
      */
-    public Object getEconomyProvider() {
-        return economyProvider;
+    public VaultEconomy getEconomy() {
+        return economy;
+    }
+
+    /**
+     * Runs charges and refunds off the main thread.
+     */
+    public EconomyService getEconomyService() {
+        return economyService;
+    }
+
+    public SafeLocationFinder getLocationFinder() {
+        return locationFinder;
+    }
+
+    /**
+     * Pool of pre-validated locations per world. Restart it with {@link LocationPool#start(RTPSettings)} after a reload.
+     */
+    public LocationPool getLocationPool() {
+        return locationPool;
+    }
+
+    /**
+     * On-disk cache of validated destinations. Restart it with {@link DestinationCache#start(RTPSettings)} after a reload.
+     */
+    public DestinationCache getDestinationCache() {
+        return destinationCache;
+    }
+
+    /**
+     * Learned per-world rejection maps. Restart with {@link RejectionTracker#start(RTPSettings)} after a reload.
+     */
+    public RejectionTracker getRejectionTracker() {
+        return rejectionTracker;
     }
-}
 
+    /**
+     * Recent destinations and player positions that searches keep away from. Restart with {@link SpacingIndex#start(RTPSettings)} after a reload.
+     */
+    public SpacingIndex getSpacingIndex() {
+        return spacingIndex;
+    }
+
+    /**
+     * Admission control for RTP searches, chunk loads and teleports. Restart with {@link RtpScheduler#start(RTPSettings)} after a reload.
+     */
+    public RtpScheduler getRtpScheduler() {
+        return rtpScheduler;
+    }
+
+    /**
+     * Loads the area around destinations before teleporting. Apply new settings with {@link DestinationPreloader#start(RTPSettings)} after a reload.
+     */
+    public DestinationPreloader getDestinationPreloader() {
+        return destinationPreloader;
+    }
+
+    /**
+     * Background pre-generation of the RTP zone. Restart with {@link PregenService#start(RTPSettings)} after a reload.
+     */
+    public PregenService getPregenService() {
+        return pregenService;
+    }
+
+    /**
+     * Per-phase timings and counters of RTP requests, shown by /srtp stats.
+     */
+    public RtpMetrics getRtpMetrics() {
+        return rtpMetrics;
+    }
+
+    /**
+     * Running /rtp cooldowns, persisted across restarts. Restart with {@link CooldownStore#start(RTPSettings)} after a reload.
+     */
+    public CooldownStore getCooldownStore() {
+        return cooldownStore;
+    }
+}
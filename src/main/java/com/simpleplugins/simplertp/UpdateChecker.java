@@ -1,5 +1,6 @@
 package com.simpleplugins.simplertp;
 
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -36,10 +37,11 @@ public final class UpdateChecker {
      * Runs the update check asynchronously. If a newer version exists, notifies console and admins.
      */
     public void checkAsync() {
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+        ServerScheduler scheduler = new ServerScheduler(plugin);
+        scheduler.async().execute(() -> {
             String latestVersion = fetchLatestVersion();
             if (latestVersion != null && isNewer(latestVersion, currentVersion)) {
-                Bukkit.getScheduler().runTask(plugin, this::sendUpdateNotification);
+                scheduler.global().execute(this::sendUpdateNotification);
             }
         });
     }
@@ -0,0 +1,387 @@
+package com.simpleplugins.simplertp.cache;
+
+import com.simpleplugins.simplertp.SimpleRTP;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import com.simpleplugins.simplertp.search.SafeLocationFinder;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+
+/**
+ * Persists validated RTP destinations to disk so they survive restarts.
+ * <p>
+ * Only surplus locations are stored: safe locations found by pool refills and pre-generation that
+ * did not fit into the location pool. Destinations players were sent to are never cached.
+ * <p>
+ * Each world has its own file in {@code plugins/SimpleRTP/destinations/<world-uuid>.bin}: a 16 byte
+ * header (magic, version, entry count, next write slot) followed by fixed-size records of
+ * x (int), z (int), y (short) and the time it was validated (int, epoch seconds). Files are
+ * a ring buffer of at most cache.max-entries records, so old entries are overwritten once full.
+ * <p>
+ * Files are memory-mapped on an async thread at startup and read lazily, so they cost almost no
+ * heap. New destinations are queued and appended in batches by an async flush task. Entries read
+ * back are rechecked before use, since the world may have changed while the server was offline,
+ * and entries older than cache.max-age are skipped. Every entry handed out (or rejected by the
+ * recheck) is marked as used in the file with the next flush, so it is not served again after a
+ * restart.
+ */
+public final class DestinationCache {
+
+    private static final int MAGIC = 0x53525450; // "SRTP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 14;
+    /** Timestamp of an entry that has been handed out. */
+    private static final int USED = 0;
+    /** Entries tried per take() before giving up, so a cache full of stale entries cannot delay /rtp much. */
+    private static final int MAX_RECHECKS = 5;
+
+    private final SimpleRTP plugin;
+    private final SafeLocationFinder finder;
+    private final Map<UUID, WorldFile> files = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingEntry> pending = new ConcurrentLinkedQueue<>();
+
+    private final ServerScheduler scheduler;
+
+    private ServerScheduler.Task flushTask;
+    private volatile boolean enabled;
+    private int maxEntries;
+    private volatile long maxAgeSeconds;
+    /** Set once the cache is closed on disable; a flush still running afterwards writes nothing. */
+    private boolean stopped;
+
+    public DestinationCache(SimpleRTP plugin, SafeLocationFinder finder) {
+        this.plugin = plugin;
+        this.finder = finder;
+        this.scheduler = new ServerScheduler(plugin);
+    }
+
+    /**
+     * Applies the cache settings of the snapshot and restarts the flush task. Files already open are flushed and
+     * closed, and existing files are mapped again, on an async thread; never blocks the calling
+     * thread on disk I/O.
+     */
+    public void start(RTPSettings settings) {
+        cancelFlush();
+        RTPSettings.Cache config = settings.cache();
+        boolean enable = config.enabled();
+        maxEntries = config.maxEntries();
+        maxAgeSeconds = config.maxAgeSeconds();
+        enabled = enable;
+
+        scheduler.async().execute(() -> reopen(enable));
+        if (!enable) {
+            return;
+        }
+        long interval = config.flushIntervalSeconds() * 20L;
+        flushTask = scheduler.runAsyncTimer(this::flush, interval, interval);
+    }
+
+    /**
+     * Stops the flush task, writes pending entries and closes all files once a flush still running
+     * has finished. Blocks; call on disable.
+     */
+    public synchronized void stop() {
+        cancelFlush();
+        closeFiles();
+        stopped = true;
+    }
+
+    private synchronized void reopen(boolean enable) {
+        if (stopped) {
+            return;
+        }
+        closeFiles();
+        if (enable) {
+            loadAll();
+        }
+    }
+
+    private void cancelFlush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+    }
+
+    /**
+     * Writes pending entries and closes all files. Serialized with the flush task.
+     */
+    private synchronized void closeFiles() {
+        flush();
+        for (WorldFile file : files.values()) {
+            file.close(plugin);
+        }
+        files.clear();
+    }
+
+    /**
+     * Queues a validated destination to be written with the next flush. Only for surplus locations
+     * no player is sent to and that are not pooled, so no location is handed out twice.
+     */
+    public void record(Location loc) {
+        World world = loc.getWorld();
+        if (!enabled || world == null) {
+            return;
+        }
+        pending.add(new PendingEntry(world.getUID(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(),
+                (int) (System.currentTimeMillis() / 1000L)));
+    }
+
+    /**
+     * Takes the next cached destination of the world that lies in the area of the given radius
+     * around 0,0 (see {@link RTPSettings#isInArea}), is still safe and is not crowded (see
+     * {@link com.simpleplugins.simplertp.search.SpacingIndex#isCrowded}). Completes on the main
+     * thread, with null when no usable entry is found.
+     */
+    public CompletableFuture<Location> take(World world, int radius) {
+        WorldFile file = enabled ? files.get(world.getUID()) : null;
+        CompletableFuture<Location> result = new CompletableFuture<>();
+        takeNext(world, file, radius, 0, result);
+        return result;
+    }
+
+    private void takeNext(World world, WorldFile file, int radius, int tries, CompletableFuture<Location> result) {
+        Location loc = (file != null && tries < MAX_RECHECKS)
+                ? file.next(world, plugin.getSettings(), radius, maxAgeSeconds)
+                : null;
+        if (loc == null) {
+            result.complete(null);
+            return;
+        }
+        if (plugin.getSpacingIndex().isCrowded(world, loc.getBlockX(), loc.getBlockZ())) {
+            // Next to a player or a recent destination; counts as a try like a failed recheck
+            takeNext(world, file, radius, tries + 1, result);
+            return;
+        }
+        finder.recheck(loc).whenComplete((safe, error) -> {
+            if (error == null && Boolean.TRUE.equals(safe)) {
+                result.complete(loc);
+            } else {
+                takeNext(world, file, radius, tries + 1, result);
+            }
+        });
+    }
+
+    private void loadAll() {
+        File[] existing = folder().listFiles((dir, name) -> name.endsWith(".bin"));
+        if (existing == null) {
+            return;
+        }
+        for (File f : existing) {
+            try {
+                UUID worldId = UUID.fromString(f.getName().substring(0, f.getName().length() - 4));
+                fileFor(worldId);
+            } catch (IllegalArgumentException ignored) {
+                // Not a cache file
+            }
+        }
+    }
+
+    /**
+     * Appends all queued entries to their world files and marks the entries handed out since the
+     * last flush as used. Runs on the async flush task.
+     */
+    private synchronized void flush() {
+        if (stopped) {
+            return;
+        }
+        PendingEntry entry;
+        while ((entry = pending.poll()) != null) {
+            WorldFile file = fileFor(entry.worldId());
+            if (file != null) {
+                file.write(plugin, entry, maxEntries);
+            }
+        }
+        for (WorldFile file : files.values()) {
+            file.markUsed(plugin);
+            file.writeHeader(plugin);
+        }
+    }
+
+    private WorldFile fileFor(UUID worldId) {
+        return files.computeIfAbsent(worldId, id -> {
+            try {
+                File folder = folder();
+                if (!folder.isDirectory() && !folder.mkdirs()) {
+                    throw new IOException("Could not create " + folder);
+                }
+                return WorldFile.open(new File(folder, id + ".bin"));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to open destination cache for world " + id, e);
+                return null;
+            }
+        });
+    }
+
+    private File folder() {
+        return new File(plugin.getDataFolder(), "destinations");
+    }
+
+    private record PendingEntry(UUID worldId, int x, int y, int z, int timestamp) {
+    }
+
+    /**
+     * One world's cache file: the channel used for writes and a read-only mapping of the entries
+     * that existed when the file was opened.
+     */
+    private static final class WorldFile {
+
+        private final FileChannel channel;
+        private final MappedByteBuffer mapped;
+        private final int mappedCount;
+        private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        private int count;
+        private int nextSlot;
+        private boolean dirty;
+        private int readStart;
+        private int readCount;
+        /** Slots handed out since the last flush, with the x and z they held: {slot, x, z}. */
+        private final List<int[]> used = new ArrayList<>();
+
+        private WorldFile(FileChannel channel, MappedByteBuffer mapped, int count, int nextSlot) {
+            this.channel = channel;
+            this.mapped = mapped;
+            this.mappedCount = count;
+            this.count = count;
+            this.nextSlot = nextSlot;
+        }
+
+        static WorldFile open(File file) throws IOException {
+            FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int count = 0;
+            int nextSlot = 0;
+            MappedByteBuffer mapped = null;
+            if (channel.size() >= HEADER_SIZE) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (mapped.getInt(0) == MAGIC && mapped.getInt(4) == VERSION) {
+                    count = mapped.getInt(8);
+                    nextSlot = mapped.getInt(12);
+                    // Ignore records beyond the end of a truncated file
+                    count = (int) Math.min(count, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+                } else {
+                    mapped = null;
+                    channel.truncate(0);
+                }
+            }
+            WorldFile worldFile = new WorldFile(channel, mapped, count, nextSlot);
+            // Start reading at a random slot so restarts do not hand out the same destinations first
+            worldFile.readStart = count > 0 ? ThreadLocalRandom.current().nextInt(count) : 0;
+            return worldFile;
+        }
+
+        /**
+         * Returns the next mapped entry within radius of 0,0 that is not used and at most maxAgeSeconds
+         * old (0 = any age), or null when every entry has been handed out. The entry is marked as used
+         * with the next flush.
+         */
+        synchronized Location next(World world, RTPSettings settings, int radius, long maxAgeSeconds) {
+            long now = System.currentTimeMillis() / 1000L;
+            while (mapped != null && readCount < mappedCount) {
+                int slot = (readStart + readCount) % mappedCount;
+                readCount++;
+                int pos = HEADER_SIZE + slot * RECORD_SIZE;
+                int x = mapped.getInt(pos);
+                int z = mapped.getInt(pos + 4);
+                short y = mapped.getShort(pos + 8);
+                int timestamp = mapped.getInt(pos + 10);
+                if (timestamp == USED || (maxAgeSeconds > 0 && now - timestamp > maxAgeSeconds)) {
+                    continue;
+                }
+                if (settings.isInArea(x, z, radius)) {
+                    used.add(new int[]{slot, x, z});
+                    return new Location(world, x + 0.5, y, z + 0.5);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Overwrites the timestamp of the entries handed out since the last flush with {@link #USED},
+         * unless a newer entry has been written to the slot in the meantime.
+         */
+        synchronized void markUsed(SimpleRTP plugin) {
+            if (used.isEmpty()) {
+                return;
+            }
+            try {
+                for (int[] entry : used) {
+                    long pos = HEADER_SIZE + (long) entry[0] * RECORD_SIZE;
+                    record.clear().limit(8);
+                    channel.read(record, pos);
+                    if (record.position() < 8 || record.getInt(0) != entry[1] || record.getInt(4) != entry[2]) {
+                        continue;
+                    }
+                    record.clear();
+                    record.putInt(USED);
+                    record.flip();
+                    channel.write(record, pos + 10);
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to mark destination cache entries as used", e);
+            }
+            used.clear();
+        }
+
+        synchronized void write(SimpleRTP plugin, PendingEntry entry, int maxEntries) {
+            try {
+                if (nextSlot >= maxEntries) {
+                    nextSlot = 0;
+                }
+                record.clear();
+                record.putInt(entry.x()).putInt(entry.z()).putShort((short) entry.y()).putInt(entry.timestamp());
+                record.flip();
+                channel.write(record, HEADER_SIZE + (long) nextSlot * RECORD_SIZE);
+                nextSlot++;
+                count = Math.min(Math.max(count, nextSlot), maxEntries);
+                dirty = true;
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to write destination cache entry", e);
+            }
+        }
+
+        /**
+         * Writes the header once per flush, after the batch of records it describes.
+         */
+        synchronized void writeHeader(SimpleRTP plugin) {
+            if (!dirty) {
+                return;
+            }
+            try {
+                header.clear();
+                header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(nextSlot);
+                header.flip();
+                channel.write(header, 0);
+                dirty = false;
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to write destination cache header", e);
+            }
+        }
+
+        void close(SimpleRTP plugin) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to close destination cache", e);
+            }
+        }
+    }
+}
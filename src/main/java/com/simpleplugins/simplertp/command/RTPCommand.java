@@ -1,39 +1,50 @@
 package com.simpleplugins.simplertp.command;
 
 import com.simpleplugins.simplertp.SimpleRTP;
-import com.simpleplugins.simplertp.economy.VaultEconomyHelper;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.economy.EconomyCharge;
+import com.simpleplugins.simplertp.metrics.RtpMetrics;
+import com.simpleplugins.simplertp.metrics.RtpRequestEvent;
+import com.simpleplugins.simplertp.scheduler.RtpScheduler;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import com.simpleplugins.simplertp.search.SafeLocationFinder;
 import org.bukkit.*;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 public class RTPCommand implements CommandExecutor {
 
-    private static final int MAX_ATTEMPTS = 20;
+    private static final String ALL_FLAG = "--all";
+    private static final String GROUP_FLAG = "--group";
 
     private final SimpleRTP plugin;
-    private final Random random = ThreadLocalRandom.current();
-    private final Map<java.util.UUID, Long> cooldownEndByUuid = new HashMap<>();
+    private final ServerScheduler serverScheduler;
+    /**
+     * Players with a request in flight, each with the JFR event of their request. Concurrent, since
+     * on Folia commands run on the region thread of the player who sent them.
+     */
+    private final Map<java.util.UUID, RtpRequestEvent> pendingSearches = new ConcurrentHashMap<>();
 
-    private NamespacedKey getUsedRTPOnceKey() {
-        return new NamespacedKey(plugin, "used_rtp_once");
-    }
+    private final NamespacedKey usedRTPOnceKey;
 
     public RTPCommand(SimpleRTP plugin) {
         this.plugin = plugin;
+        this.serverScheduler = new ServerScheduler(plugin);
+        this.usedRTPOnceKey = new NamespacedKey(plugin, "used_rtp_once");
     }
 
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        long started = System.nanoTime();
         Player target;
         boolean selfTeleport = args.length == 0;
 
@@ -50,6 +61,13 @@ public class RTPCommand implements CommandExecutor {
                 return true;
             }
 
+            // /rtp --all, /rtp --group <players...>: scatter many players at once. Player names cannot
+            // start with '-', so the flags never shadow a player
+            if (args[0].equalsIgnoreCase(ALL_FLAG) || args[0].equalsIgnoreCase(GROUP_FLAG)) {
+                massTeleport(sender, args);
+                return true;
+            }
+
             Player found = Bukkit.getPlayer(args[0]);
             if (found == null) {
                 sendMessage(sender, "player-not-found");
@@ -58,43 +76,44 @@ public class RTPCommand implements CommandExecutor {
             target = found;
         }
 
+        // The target's permissions, world and data are owned by the target's thread, which on Folia
+        // is not the sender's when the console or another player runs /rtp <player>
         Player player = target;
+        serverScheduler.runForEntity(player, () -> request(player, selfTeleport, started), null);
+        return true;
+    }
+
+    /**
+     * Checks that the player may teleport and claims their request, then admits it on the main
+     * thread. Runs on the player's thread.
+     */
+    private void request(Player player, boolean selfTeleport, long started) {
+        RTPSettings settings = plugin.getSettings();
 
         // No permission on target
         if (!player.hasPermission("srtp.rtp") && !player.hasPermission("srtp.rtp.once")) {
             sendMessage(player, "no-permission");
-            return true;
+            return;
         }
 
         // World filter: when enabled, player must be in one of the allowed worlds
         World world = resolveRTPWorld(player);
         if (world == null) {
-            FileConfiguration cfg = plugin.getConfig();
-            boolean filterEnabled = cfg.getBoolean("world-filter-enabled", false);
-            if (filterEnabled) {
-                List<String> allowed = cfg.getStringList("worlds");
-                String worldList = (allowed != null && !allowed.isEmpty()) ? String.join(", ", allowed) : "";
-                sendMessage(player, "world-not-allowed", msg -> msg.replace("%worlds%", worldList));
+            if (settings.worldFilterEnabled()) {
+                sendMessage(player, "world-not-allowed", "worlds", settings.worldList());
             } else {
                 sendMessage(player, "world-not-found");
             }
-            return true;
+            return;
         }
 
         // Cost (Vault) - only applied when a player teleports themselves, NOT when teleporting others
-        FileConfiguration config = plugin.getConfig();
-        boolean costEnabled = config.getBoolean("cost-enabled", false);
-        double costAmount = config.getDouble("cost-amount", 0);
-        if (selfTeleport && costEnabled && costAmount > 0) {
-            Object economy = plugin.getEconomyProvider();
-            if (economy == null) {
-                sendMessage(player, "cost-no-vault");
-                return true;
-            }
-            if (!VaultEconomyHelper.hasEnough(economy, player, costAmount)) {
-                sendMessage(player, "cost-insufficient", msg -> msg.replace("%cost%", String.valueOf(costAmount)));
-                return true;
-            }
+        boolean costEnabled = settings.costEnabled();
+        double costAmount = settings.costAmount();
+        // The balance itself is checked off the main thread when the player is charged, below
+        if (selfTeleport && costEnabled && costAmount > 0 && plugin.getEconomy() == null) {
+            sendMessage(player, "cost-no-vault");
+            return;
         }
 
         // Has srtp.rtp (unlimited) or srtp.rtp.once
@@ -103,229 +122,418 @@ public class RTPCommand implements CommandExecutor {
             // Only has srtp.rtp.once: check if already used
             if (hasUsedRTPOnce(player)) {
                 sendMessage(player, "used-once");
-                return true;
+                return;
             }
         }
 
-        int cooldownSeconds = plugin.getConfig().getInt("cooldown", 0);
+        int cooldownSeconds = settings.cooldownSeconds();
         // Cooldown only applies when a player teleports themselves
         if (selfTeleport && cooldownSeconds > 0) {
-            Long endAt = cooldownEndByUuid.get(player.getUniqueId());
-            long now = System.currentTimeMillis();
-            if (endAt != null && now < endAt) {
-                long remaining = (endAt - now) / 1000;
-                sendMessage(player, "cooldown", msg -> msg.replace("%seconds%", String.valueOf(remaining)));
-                return true;
+            long remainingMillis = plugin.getCooldownStore().remainingMillis(player.getUniqueId());
+            if (remainingMillis > 0) {
+                long remaining = remainingMillis / 1000;
+                sendMessage(player, "cooldown", "seconds", String.valueOf(remaining));
+                return;
             }
         }
 
-        int radius = plugin.getConfig().getInt("radius", 1000);
+        // Only one search in flight per player; the search is asynchronous so spamming would queue many.
+        // Claimed atomically, since the player and the console may run /rtp for them on different threads
+        RtpRequestEvent request = new RtpRequestEvent(player.getName(), world.getName());
+        if (pendingSearches.putIfAbsent(player.getUniqueId(), request) != null) {
+            sendMessage(player, "in-progress");
+            return;
+        }
 
-        sendMessage(player, "teleporting");
+        Location center = resolveCenter(player);
+        double cost = selfTeleport && costEnabled && costAmount > 0 ? costAmount : 0;
+        int cooldown = selfTeleport ? cooldownSeconds : 0;
+        runOnMainThread(() -> admit(player, world, center, request, cost, cooldown, unlimited, started));
+    }
 
-        Location targetLocation = findSafeLocation(player, world, radius);
-        if (targetLocation == null) {
-            sendMessage(player, "failed");
-            return true;
+    /**
+     * Queues a claimed request unless the queue is full, charging the player first when cost is
+     * above 0. Runs on the main thread, which owns the scheduler's queue.
+     */
+    private void admit(Player player, World world, Location center, RtpRequestEvent request, double cost,
+                       int cooldownSeconds, boolean unlimited, long started) {
+        RtpScheduler scheduler = plugin.getRtpScheduler();
+        if (scheduler.isFull()) {
+            pendingSearches.remove(player.getUniqueId());
+            sendMessage(player, "queue-full");
+            return;
         }
+        RtpMetrics metrics = plugin.getRtpMetrics();
+        metrics.record(world, RtpMetrics.Phase.CHECKS, started);
+        metrics.count(world, RtpMetrics.Counter.REQUESTS);
 
-        final double costToDeduct = (selfTeleport && costEnabled && costAmount > 0) ? costAmount : 0;
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
-            if (costToDeduct > 0) {
-                Object economy = plugin.getEconomyProvider();
-                if (economy != null && !VaultEconomyHelper.withdraw(economy, player, costToDeduct)) {
-                    sendMessage(player, "failed");
-                    return;
-                }
-            }
-            player.teleport(targetLocation);
-
-            playTeleportSound(player);
-            sendMessage(player, "success");
+        sendMessage(player, "teleporting");
 
-            // Only set cooldown when the player teleports themselves
-            if (selfTeleport && cooldownSeconds > 0) {
-                cooldownEndByUuid.put(player.getUniqueId(), System.currentTimeMillis() + cooldownSeconds * 1000L);
+        // Charge first (off the main thread), so the search only runs for players who paid.
+        // Every failure after this point refunds the charge.
+        boolean charged = cost > 0;
+        int radius = plugin.getSettings().radius();
+        long chargeStart = System.nanoTime();
+        CompletableFuture<EconomyCharge> charge = charged
+                ? plugin.getEconomyService().charge(player, cost)
+                : CompletableFuture.completedFuture(EconomyCharge.FREE);
+        charge.whenComplete((paid, chargeError) -> runOnMainThread(() -> {
+            if (charged) {
+                metrics.record(world, RtpMetrics.Phase.ECONOMY, chargeStart);
             }
-            if (!unlimited) {
-                setUsedRTPOnce(player);
+            if (chargeError != null || !paid.isPaid()) {
+                boolean insufficient = paid != null && paid.status() == EconomyCharge.Status.INSUFFICIENT;
+                finishRequest(player, insufficient ? "insufficient-funds" : "failed", null);
+                if (insufficient) {
+                    sendMessage(player, "cost-insufficient", "cost", String.valueOf(cost));
+                } else {
+                    sendMessage(player, "failed");
+                }
+                return;
             }
-        });
 
-        return true;
+            scheduler.submit(player, () -> findLocation(world, center, radius, request),
+                            position -> sendMessage(player, "queued", "position", String.valueOf(position)))
+                    .whenComplete((targetLocation, error) -> runOnMainThread(() -> {
+                        if (error instanceof RejectedExecutionException) {
+                            // The queue filled up while the charge was running
+                            finishRequest(player, "queue-full", null);
+                            boolean refunded = paid.refund();
+                            if (player.isOnline()) {
+                                sendMessage(player, "queue-full");
+                                if (refunded) {
+                                    sendMessage(player, "cost-refunded", "cost", String.valueOf(paid.amount()));
+                                }
+                            }
+                            return;
+                        }
+                        if (error != null || targetLocation == null || !player.isOnline()) {
+                            finishRequest(player, "failed", null);
+                            fail(player, world, paid);
+                            return;
+                        }
+                        preloadThenTeleport(player, targetLocation, paid, cooldownSeconds, unlimited, started);
+                    }));
+        }));
     }
 
     /**
-     * Resolves the destination world for RTP.
-     * If world-filter-enabled is false, returns the player's current world (command allowed in any world).
-     * If true, returns the player's current world only when it is in the allowed list; otherwise null.
+     * Reports a failed RTP and refunds the player if they were charged for it. The refund message
+     * shows the amount actually charged, which may differ from the cost after a reload.
      */
-    private World resolveRTPWorld(Player player) {
-        FileConfiguration config = plugin.getConfig();
-        boolean filterEnabled = config.getBoolean("world-filter-enabled", false);
-        if (!filterEnabled) {
-            return player.getWorld();
-        }
-        List<String> worldNames = config.getStringList("worlds");
-        if (worldNames == null || worldNames.isEmpty()) {
-            return null;
-        }
-        String currentName = player.getWorld().getName();
-        if (worldNames.contains(currentName)) {
-            return player.getWorld();
+    private void fail(Player player, World world, EconomyCharge charge) {
+        plugin.getRtpMetrics().count(world, RtpMetrics.Counter.FAILURES);
+        boolean refunded = charge.refund();
+        if (player.isOnline()) {
+            sendMessage(player, "failed");
+            if (refunded) {
+                sendMessage(player, "cost-refunded", "cost", String.valueOf(charge.amount()));
+            }
         }
-        return null;
     }
 
     /**
-     * Finds a safe location within the radius. The player always spawns on top of a solid block
-     * (feet in the air block above ground), never floating in the air.
+     * Scatters several players in one batched search per world. Each world's search is queued in
+     * the RTP scheduler like a single request, so it takes one search slot and respects max-queue.
+     * Destinations are at least mass.min-spacing blocks apart, and teleports are spread over ticks
+     * by the scheduler's teleport budget. Like /rtp &lt;player&gt;, targets need srtp.rtp or an unused srtp.rtp.once
+     * and must be in an allowed world, the once-only use is marked, and no cost or cooldown applies.
      */
-    private Location findSafeLocation(Player player, World world, int radius) {
-        int centerX;
-        int centerZ;
-
-        String from = plugin.getConfig().getString("rtp-from", "center");
-        if ("player".equalsIgnoreCase(from)) {
-            Location loc = player.getLocation();
-            centerX = loc.getBlockX();
-            centerZ = loc.getBlockZ();
+    private void massTeleport(CommandSender sender, String[] args) {
+        List<Player> targets = new ArrayList<>();
+        if (args[0].equalsIgnoreCase(ALL_FLAG)) {
+            targets.addAll(Bukkit.getOnlinePlayers());
         } else {
-            centerX = 0;
-            centerZ = 0;
+            for (int i = 1; i < args.length; i++) {
+                Player found = Bukkit.getPlayer(args[i]);
+                if (found == null) {
+                    sendMessage(sender, "player-not-found");
+                    return;
+                }
+                targets.add(found);
+            }
         }
 
-        int minX = centerX - radius;
-        int maxX = centerX + radius;
-        int minZ = centerZ - radius;
-        int maxZ = centerZ + radius;
+        // rtp-from "player" centers on the sender when they are in the same world; read here, on the sender's thread
+        Location senderCenter = sender instanceof Player senderPlayer ? resolveCenter(senderPlayer) : null;
+
+        // Each target is checked on their own thread, then the targets are grouped on the main thread
+        List<CompletableFuture<MassTarget>> checks = new ArrayList<>(targets.size());
+        for (Player target : targets) {
+            CompletableFuture<MassTarget> check = new CompletableFuture<>();
+            serverScheduler.runForEntity(target, () -> check.complete(checkMassTarget(target)),
+                    () -> check.complete(null));
+            checks.add(check);
+        }
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0]))
+                .thenRunAsync(() -> scatter(sender, checks, senderCenter), serverScheduler.global());
+    }
 
-        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
-            int x = minX + random.nextInt(maxX - minX + 1);
-            int z = minZ + random.nextInt(maxZ - minZ + 1);
+    /**
+     * The target's destination world and whether they have unlimited RTP, or null when they may not
+     * be scattered: no permission, not in an allowed world or srtp.rtp.once already used. Runs on
+     * the target's thread.
+     */
+    private MassTarget checkMassTarget(Player target) {
+        boolean unlimited = target.hasPermission("srtp.rtp");
+        if (!unlimited && (!target.hasPermission("srtp.rtp.once") || hasUsedRTPOnce(target))) {
+            return null;
+        }
+        World world = resolveRTPWorld(target);
+        return world == null ? null : new MassTarget(target, world, unlimited);
+    }
 
-            int highestY = world.getHighestBlockYAt(x, z);
-            if (highestY <= world.getMinHeight()) {
+    /**
+     * Groups the allowed targets by destination world and starts one batched search per world.
+     * Targets that may not be scattered or are already teleporting are skipped and reported to the
+     * sender. Runs on the main thread.
+     */
+    private void scatter(CommandSender sender, List<CompletableFuture<MassTarget>> checks, Location senderCenter) {
+        Map<World, List<MassTarget>> byWorld = new HashMap<>();
+        int notAllowed = 0;
+        int pending = 0;
+        for (CompletableFuture<MassTarget> check : checks) {
+            MassTarget target = check.join();
+            if (target == null) {
+                notAllowed++;
                 continue;
             }
-
-            // Nether: never spawn on or above the roof (above Y 124)
-            if (world.getEnvironment() == World.Environment.NETHER && (highestY + 1) > 124) {
+            RtpRequestEvent request = new RtpRequestEvent(target.player().getName(), target.world().getName());
+            if (pendingSearches.putIfAbsent(target.player().getUniqueId(), request) != null) {
+                pending++;
                 continue;
             }
+            request.source("mass");
+            byWorld.computeIfAbsent(target.world(), w -> new ArrayList<>()).add(target);
+        }
+        if (notAllowed + pending > 0) {
+            sendMessage(sender, "mass-skipped",
+                    "count", String.valueOf(notAllowed + pending),
+                    "pending", String.valueOf(pending));
+        }
+        if (byWorld.isEmpty()) {
+            return;
+        }
 
-            // Player at y = highestY + 1: feet in air above solid block, always on a block
-            Location loc = new Location(world, x + 0.5, highestY + 1, z + 0.5);
-            if (isSafeLocation(world, loc)) {
-                return loc;
+        int total = byWorld.values().stream().mapToInt(List::size).sum();
+        sendMessage(sender, "mass-start", "count", String.valueOf(total));
+
+        RTPSettings settings = plugin.getSettings();
+        int radius = settings.radius();
+        int minSpacing = settings.massMinSpacing();
+        RtpScheduler scheduler = plugin.getRtpScheduler();
+        RtpMetrics metrics = plugin.getRtpMetrics();
+        long started = System.nanoTime();
+
+        for (Map.Entry<World, List<MassTarget>> entry : byWorld.entrySet()) {
+            World world = entry.getKey();
+            List<MassTarget> players = entry.getValue();
+            for (MassTarget target : players) {
+                metrics.count(world, RtpMetrics.Counter.REQUESTS);
+                sendMessage(target.player(), "teleporting");
             }
+
+            Location center = senderCenter != null && world.equals(senderCenter.getWorld())
+                    ? senderCenter
+                    : new Location(world, 0, 0, 0);
+            // One queued job per world, so a scatter takes a search slot like any other request
+            scheduler.submit(null, () -> plugin.getLocationFinder().findMany(world, center.getBlockX(), center.getBlockZ(),
+                                    radius, players.size(), minSpacing, SafeLocationFinder.MAX_PARALLEL),
+                            position -> {
+                                for (MassTarget target : players) {
+                                    sendMessage(target.player(), "queued", "position", String.valueOf(position));
+                                }
+                            })
+                    .whenComplete((found, error) -> runOnMainThread(() -> {
+                        if (error instanceof RejectedExecutionException) {
+                            for (MassTarget target : players) {
+                                finishRequest(target.player(), "queue-full", null);
+                                if (target.player().isOnline()) {
+                                    sendMessage(target.player(), "queue-full");
+                                }
+                            }
+                            sendMessage(sender, "queue-full");
+                            return;
+                        }
+                        List<Location> locations = error == null ? found : List.of();
+                        for (int i = 0; i < players.size(); i++) {
+                            Player target = players.get(i).player();
+                            if (i >= locations.size()) {
+                                finishRequest(target, "failed", null);
+                                metrics.count(world, RtpMetrics.Counter.FAILURES);
+                                if (target.isOnline()) {
+                                    sendMessage(target, "failed");
+                                }
+                                continue;
+                            }
+                            preloadThenTeleport(target, locations.get(i), EconomyCharge.FREE, 0, players.get(i).unlimited(), started);
+                        }
+                        int failed = Math.max(0, players.size() - locations.size());
+                        sendMessage(sender, "mass-done",
+                                "world", world.getName(),
+                                "count", String.valueOf(players.size() - failed),
+                                "failed", String.valueOf(failed));
+                    }));
         }
-        return null;
     }
 
     /**
-     * Checks that the player spawns on a solid block: solid block under feet,
-     * feet and head space clear (not inside blocks), no lava.
+     * Takes a destination from the location pool when possible, then from the on-disk destination
+     * cache, and falls back to a live search around the given center when both are empty. The
+     * source and the search attempts are recorded in the request's JFR event.
      */
-    private boolean isSafeLocation(World world, Location loc) {
-        int x = loc.getBlockX();
-        int y = loc.getBlockY();
-        int z = loc.getBlockZ();
-
-        Material feet = world.getBlockAt(x, y, z).getType();
-        Material head = world.getBlockAt(x, y + 1, z).getType();
-        Material below = world.getBlockAt(x, y - 1, z).getType();
-
-        // Must be on a solid block (not in the air)
-        if (below.isAir() || !below.isSolid()) return false;
-        if (below == Material.LAVA) return false;
-        // Feet and head must be passable (not inside a block)
-        if (feet.isSolid() || head.isSolid()) return false;
-        if (feet == Material.LAVA || head == Material.LAVA) return false;
-        // Avoid spawning above world max height
-        if (y + 1 >= world.getMaxHeight()) return false;
-
-        return true;
+    private CompletableFuture<Location> findLocation(World world, Location center, int radius, RtpRequestEvent request) {
+        request.source("pool");
+        return plugin.getLocationPool().take(world, radius)
+                .thenCompose(pooled -> {
+                    if (pooled != null) {
+                        return CompletableFuture.completedFuture(pooled);
+                    }
+                    request.source("cache");
+                    return plugin.getDestinationCache().take(world, radius);
+                })
+                .thenCompose(cached -> {
+                    if (cached != null) {
+                        return CompletableFuture.completedFuture(cached);
+                    }
+                    request.source("search");
+                    return plugin.getLocationFinder().find(world, center.getBlockX(), center.getBlockZ(), radius, request);
+                });
     }
 
-    private boolean hasUsedRTPOnce(Player player) {
-        return Boolean.TRUE.equals(
-                player.getPersistentDataContainer().get(getUsedRTPOnceKey(), PersistentDataType.BOOLEAN));
+    /**
+     * Reserves the destination in the spacing index, loads the area around it, then queues the
+     * teleport within the scheduler's teleport budget. started is the {@link System#nanoTime()} the
+     * request was made at.
+     */
+    private void preloadThenTeleport(Player player, Location targetLocation, EconomyCharge charge, int cooldownSeconds,
+                                     boolean unlimited, long started) {
+        long teleportStart = System.nanoTime();
+        plugin.getSpacingIndex().recordDestination(targetLocation);
+        plugin.getDestinationPreloader().preload(targetLocation).thenRun(() ->
+                plugin.getRtpScheduler().teleports().execute(() ->
+                        teleport(player, targetLocation, charge, cooldownSeconds, unlimited, started, teleportStart)));
     }
 
-    private void setUsedRTPOnce(Player player) {
-        player.getPersistentDataContainer().set(getUsedRTPOnceKey(), PersistentDataType.BOOLEAN, true);
-    }
+    /**
+     * Teleports the player to the found location. The charge is kept when the teleport succeeds
+     * and refunded otherwise. The teleport and everything done to the player afterwards run on the
+     * player's thread: the main thread on Paper, their entity scheduler on Folia.
+     */
+    private void teleport(Player player, Location targetLocation, EconomyCharge charge, int cooldownSeconds, boolean unlimited,
+                          long started, long teleportStart) {
+        Runnable offline = () -> {
+            finishRequest(player, "offline", targetLocation);
+            charge.refund();
+        };
+        if (!player.isOnline()) {
+            offline.run();
+            return;
+        }
 
-    private String getPrefix() {
-        return plugin.getConfig().getString("prefix", "");
+        serverScheduler.runForEntity(player, () -> player.teleportAsync(targetLocation).whenComplete((success, error) -> {
+            boolean teleported = error == null && Boolean.TRUE.equals(success);
+            serverScheduler.runForEntity(player, () -> completeTeleport(player, targetLocation, teleported, charge,
+                    cooldownSeconds, unlimited, started, teleportStart), () -> {
+                // The player left before the outcome could be shown
+                finishRequest(player, "offline", targetLocation);
+                if (teleported) {
+                    charge.commit();
+                } else {
+                    charge.refund();
+                }
+            });
+        }), offline);
     }
 
-    private String getMessage(String key) {
-        return plugin.getConfig().getString("messages." + key, "&7[" + key + "]");
+    private void completeTeleport(Player player, Location targetLocation, boolean teleported, EconomyCharge charge,
+                                  int cooldownSeconds, boolean unlimited, long started, long teleportStart) {
+        World world = targetLocation.getWorld();
+        finishRequest(player, teleported ? "teleported" : "failed", targetLocation);
+        if (!teleported) {
+            fail(player, world, charge);
+            return;
+        }
+        charge.commit();
+        RtpMetrics metrics = plugin.getRtpMetrics();
+        metrics.record(world, RtpMetrics.Phase.TELEPORT, teleportStart);
+        metrics.record(world, RtpMetrics.Phase.TOTAL, started);
+        metrics.count(world, RtpMetrics.Counter.TELEPORTS);
+
+        playTeleportSound(player);
+        sendMessage(player, "success");
+
+        // Only set cooldown when the player teleports themselves
+        if (cooldownSeconds > 0) {
+            plugin.getCooldownStore().begin(player.getUniqueId(), cooldownSeconds * 1000L);
+        }
+        if (!unlimited) {
+            setUsedRTPOnce(player);
+        }
     }
 
-    private void sendMessage(CommandSender sender, String key) {
-        sendMessage(sender, key, msg -> msg);
+    /**
+     * Ends the player's request: frees their slot and commits its JFR event with the outcome.
+     */
+    private void finishRequest(Player player, String outcome, Location destination) {
+        RtpRequestEvent request = pendingSearches.remove(player.getUniqueId());
+        if (request != null) {
+            request.finish(outcome, destination);
+        }
     }
 
-    private void sendMessage(CommandSender sender, String key, java.util.function.UnaryOperator<String> transformer) {
-        String raw = getMessage(key);
-        raw = transformer.apply(raw);
+    /**
+     * Runs the task on the main thread, or on the global region thread on Folia.
+     */
+    private void runOnMainThread(Runnable task) {
+        serverScheduler.global().execute(task);
+    }
 
-        boolean useActionBar = shouldUseActionBar(sender, key);
+    /**
+     * Resolves the destination world for RTP.
+     * If world-filter-enabled is false, returns the player's current world (command allowed in any world).
+     * If true, returns the player's current world only when it is in the allowed list; otherwise null.
+     */
+    private World resolveRTPWorld(Player player) {
+        World world = player.getWorld();
+        return plugin.getSettings().isWorldAllowed(world.getName()) ? world : null;
+    }
 
-        String prefix = getPrefix();
-        String text = raw;
-        // Only add prefix for chat messages; action bar messages are sent without prefix
-        if (!useActionBar && prefix != null && !prefix.isEmpty()) {
-            text = prefix + raw;
+    /**
+     * Resolves the center of the RTP area: 0,0 when rtp-from is "center", or the player's
+     * current position when it is "player".
+     */
+    private Location resolveCenter(Player player) {
+        if (plugin.getSettings().rtpFromPlayer()) {
+            return player.getLocation();
         }
+        return new Location(player.getWorld(), 0, 0, 0);
+    }
 
-        text = text.replace('&', '\u00A7');
-        Component component = LegacyComponentSerializer.legacySection().deserialize(text);
+    private boolean hasUsedRTPOnce(Player player) {
+        return Boolean.TRUE.equals(
+                player.getPersistentDataContainer().get(usedRTPOnceKey, PersistentDataType.BOOLEAN));
+    }
 
-        if (useActionBar && sender instanceof Player player) {
-            player.sendActionBar(component);
-        } else {
-            sender.sendMessage(component);
-        }
+    private void setUsedRTPOnce(Player player) {
+        player.getPersistentDataContainer().set(usedRTPOnceKey, PersistentDataType.BOOLEAN, true);
     }
 
-    private boolean shouldUseActionBar(CommandSender sender, String key) {
-        if (!(sender instanceof Player)) {
-            return false;
-        }
-        String mode = plugin.getConfig().getString("message-delivery", "chat");
-        if (!"action_bar".equalsIgnoreCase(mode) && !"action-bar".equalsIgnoreCase(mode)) {
-            return false;
-        }
-        // Only these keys are eligible for action bar
-        return key.equals("success")
-                || key.equals("failed")
-                || key.equals("used-once")
-                || key.equals("cooldown");
+    /**
+     * Sends a message prerendered at the last reload. Placeholders are name/value pairs, e.g. "seconds", "5".
+     */
+    private void sendMessage(CommandSender sender, String key, String... placeholders) {
+        plugin.getSettings().messages().send(sender, key, placeholders);
     }
 
     private void playTeleportSound(Player player) {
-        FileConfiguration config = plugin.getConfig();
-        if (!config.getBoolean("makesound", false)) {
-            return;
-        }
-        String soundKey = config.getString("sound", "entity.enderman.teleport");
-        if (soundKey == null || soundKey.isEmpty()) {
-            return;
-        }
-
-        // Convert a namespaced id like "entity.enderman.teleport" to a Bukkit Sound enum name.
-        // Example: "entity.enderman.teleport" -> "ENTITY_ENDERMAN_TELEPORT"
-        String enumName = soundKey.toUpperCase(Locale.ROOT).replace('.', '_');
-        try {
-            Sound sound = Sound.valueOf(enumName);
+        // Resolved once per reload; null when makesound is off or the sound is unknown
+        Sound sound = plugin.getSettings().sound();
+        if (sound != null) {
             player.playSound(player.getLocation(), sound, 1.0f, 1.0f);
-        } catch (IllegalArgumentException ex) {
-            // Invalid or unsupported sound; ignore silently.
         }
     }
-}
 
+    private record MassTarget(Player player, World world, boolean unlimited) {
+    }
+}
@@ -2,11 +2,17 @@ package com.simpleplugins.simplertp.command;
 
 import com.simpleplugins.simplertp.ConfigUpdater;
 import com.simpleplugins.simplertp.SimpleRTP;
+import com.simpleplugins.simplertp.config.MessageTemplate;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.metrics.LatencyHistogram;
+import com.simpleplugins.simplertp.metrics.RtpMetrics;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Locale;
+
 public class SrtpCommand implements CommandExecutor {
 
     private final SimpleRTP plugin;
@@ -17,6 +23,10 @@ public class SrtpCommand implements CommandExecutor {
 
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+            stats(sender, args.length > 1 && args[1].equalsIgnoreCase("reset"));
+            return true;
+        }
         if (args.length == 0 || !args[0].equalsIgnoreCase("reload")) {
             return false; // show usage
         }
@@ -26,9 +36,73 @@ public class SrtpCommand implements CommandExecutor {
         }
         ConfigUpdater.mergeWithDefaults(plugin);
         plugin.reloadConfig();
+        plugin.reloadSettings();
         plugin.refreshEconomy();
+        RTPSettings settings = plugin.getSettings();
+        plugin.getRtpScheduler().start(settings);
+        plugin.getRejectionTracker().start(settings);
+        plugin.getSpacingIndex().start(settings);
+        plugin.getDestinationCache().start(settings);
+        plugin.getLocationPool().start(settings);
+        plugin.getCooldownStore().start(settings);
+        plugin.getDestinationPreloader().start(settings);
+        plugin.getPregenService().start(settings);
         plugin.sendConfigMessage(sender, "reload-success");
         return true;
     }
+
+    /**
+     * /srtp stats [reset]: request counters and per-phase timings (p50, p95, p99 and max), for all
+     * worlds and for each world with RTP activity.
+     */
+    private void stats(CommandSender sender, boolean reset) {
+        if (!sender.hasPermission("srtp.stats")) {
+            plugin.sendConfigMessage(sender, "no-permission");
+            return;
+        }
+        RtpMetrics metrics = plugin.getRtpMetrics();
+        if (reset) {
+            metrics.reset();
+            send(sender, "&7RTP statistics reset");
+            return;
+        }
+        long minutes = (System.currentTimeMillis() - metrics.since()) / 60000;
+        send(sender, "&6RTP statistics &7(last " + minutes + " min)");
+        sendWorld(sender, metrics.all());
+        for (RtpMetrics.WorldMetrics world : metrics.worlds()) {
+            sendWorld(sender, world);
+        }
+    }
+
+    private void sendWorld(CommandSender sender, RtpMetrics.WorldMetrics world) {
+        long requests = world.count(RtpMetrics.Counter.REQUESTS);
+        long candidates = world.count(RtpMetrics.Counter.CANDIDATES);
+        long chunkLoads = world.count(RtpMetrics.Counter.CHUNK_LOADS);
+        send(sender, String.format(Locale.ROOT,
+                "&e%s&7: &f%d &7requests, &a%d &7teleported, &c%d &7failed, &f%.1f &7candidates and &f%.1f &7chunk loads per request",
+                world.name(), requests, world.count(RtpMetrics.Counter.TELEPORTS),
+                world.count(RtpMetrics.Counter.FAILURES),
+                requests == 0 ? 0.0 : (double) candidates / requests,
+                requests == 0 ? 0.0 : (double) chunkLoads / requests));
+        for (RtpMetrics.Phase phase : RtpMetrics.Phase.values()) {
+            LatencyHistogram histogram = world.phase(phase);
+            if (histogram.count() == 0) {
+                continue;
+            }
+            send(sender, String.format(Locale.ROOT,
+                    "&7  %s: &f%d &7x, p50 &f%s&7, p95 &f%s&7, p99 &f%s&7, max &f%s",
+                    phase.displayName(), histogram.count(),
+                    millis(histogram.percentileMicros(0.50)), millis(histogram.percentileMicros(0.95)),
+                    millis(histogram.percentileMicros(0.99)), millis(histogram.maxMicros())));
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, micros < 10_000 ? "%.2f ms" : "%.0f ms", micros / 1000.0);
+    }
+
+    private static void send(CommandSender sender, String line) {
+        sender.sendMessage(MessageTemplate.compile(line).render());
+    }
 }
 
@@ -0,0 +1,76 @@
+package com.simpleplugins.simplertp.config;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * All configured messages compiled into {@link MessageTemplate}s, built once per reload.
+ * <p>
+ * Each key has a chat template (prefix included) and, for the keys that may be shown on the
+ * action bar, a template without prefix. The delivery mode is resolved when the cache is built.
+ */
+public final class MessageCache {
+
+    /** Messages that may be sent on the action bar when message-delivery is "action_bar". */
+    private static final Set<String> ACTION_BAR_KEYS = Set.of("success", "failed", "used-once", "cooldown");
+
+    private final String prefix;
+    private final Map<String, Entry> entries;
+
+    private MessageCache(String prefix, Map<String, Entry> entries) {
+        this.prefix = prefix;
+        this.entries = entries;
+    }
+
+    /**
+     * Compiles the raw messages (with & color codes) for the given prefix and delivery mode.
+     */
+    public static MessageCache build(String prefix, Map<String, String> messages, boolean actionBar) {
+        Map<String, Entry> entries = new HashMap<>();
+        for (Map.Entry<String, String> message : messages.entrySet()) {
+            String key = message.getKey();
+            String raw = message.getValue();
+            MessageTemplate chat = MessageTemplate.compile(prefix + raw);
+            MessageTemplate bar = actionBar && ACTION_BAR_KEYS.contains(key) ? MessageTemplate.compile(raw) : null;
+            entries.put(key, new Entry(chat, bar));
+        }
+        return new MessageCache(prefix, Map.copyOf(entries));
+    }
+
+    /**
+     * Sends the message with the given placeholder name/value pairs, on the action bar when
+     * configured for this key and the receiver is a player, otherwise in chat.
+     */
+    public void send(CommandSender sender, String key, String... placeholders) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            sendChat(sender, key, placeholders);
+            return;
+        }
+        if (entry.actionBar() != null && sender instanceof Player player) {
+            player.sendActionBar(entry.actionBar().render(placeholders));
+        } else {
+            sender.sendMessage(entry.chat().render(placeholders));
+        }
+    }
+
+    /**
+     * Sends the message in chat, ignoring the action bar setting.
+     */
+    public void sendChat(CommandSender sender, String key, String... placeholders) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            // Missing from config.yml: show a visible placeholder instead of nothing
+            sender.sendMessage(MessageTemplate.compile(prefix + "&7[" + key + "]").render());
+            return;
+        }
+        sender.sendMessage(entry.chat().render(placeholders));
+    }
+
+    private record Entry(MessageTemplate chat, MessageTemplate actionBar) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.simpleplugins.simplertp.config;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A configured message deserialized into a {@link Component} once per reload.
+ * <p>
+ * Messages without placeholders are kept as a single prebuilt component. Messages with
+ * placeholders such as {@code %seconds%} are split into styled parts when compiled; rendering
+ * only fills the placeholder parts with text in the style they appeared in, so no string
+ * replacement or legacy re-parse happens per send.
+ */
+public final class MessageTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("%([a-z][a-z0-9-]*)%");
+
+    private final Component prebuilt;
+    private final Part[] parts;
+
+    private MessageTemplate(Component prebuilt, Part[] parts) {
+        this.prebuilt = prebuilt;
+        this.parts = parts;
+    }
+
+    /**
+     * Compiles a message with & color codes.
+     */
+    public static MessageTemplate compile(String text) {
+        Component component = LegacyComponentSerializer.legacySection().deserialize(text.replace('&', '\u00A7'));
+        if (!PLACEHOLDER.matcher(text).find()) {
+            return new MessageTemplate(component, null);
+        }
+        List<Part> parts = new ArrayList<>();
+        flatten(component, Style.empty(), parts);
+        return new MessageTemplate(null, parts.toArray(new Part[0]));
+    }
+
+    /**
+     * Renders the message. Placeholders are given as name/value pairs without the percent signs,
+     * e.g. {@code render("seconds", "5")}. Placeholders without a value are left as written.
+     */
+    public Component render(String... placeholders) {
+        if (prebuilt != null) {
+            return prebuilt;
+        }
+        TextComponent.Builder builder = Component.text();
+        for (Part part : parts) {
+            if (part.component() != null) {
+                builder.append(part.component());
+            } else {
+                builder.append(Component.text(valueOf(part.placeholder(), placeholders), part.style()));
+            }
+        }
+        return builder.build();
+    }
+
+    private static String valueOf(String placeholder, String[] placeholders) {
+        for (int i = 0; i + 1 < placeholders.length; i += 2) {
+            if (placeholders[i].equals(placeholder)) {
+                return placeholders[i + 1];
+            }
+        }
+        return "%" + placeholder + "%";
+    }
+
+    /**
+     * Walks the deserialized tree and splits every text node at its placeholders, keeping the
+     * effective (inherited) style of each piece.
+     */
+    private static void flatten(Component component, Style parentStyle, List<Part> out) {
+        Style style = parentStyle.merge(component.style());
+        if (component instanceof TextComponent text && !text.content().isEmpty()) {
+            Matcher matcher = PLACEHOLDER.matcher(text.content());
+            int last = 0;
+            while (matcher.find()) {
+                if (matcher.start() > last) {
+                    out.add(Part.text(text.content().substring(last, matcher.start()), style));
+                }
+                out.add(new Part(null, matcher.group(1), style));
+                last = matcher.end();
+            }
+            if (last < text.content().length()) {
+                out.add(Part.text(text.content().substring(last), style));
+            }
+        }
+        for (Component child : component.children()) {
+            flatten(child, style, out);
+        }
+    }
+
+    /**
+     * Either a constant component or a placeholder rendered with the given style.
+     */
+    private record Part(Component component, String placeholder, Style style) {
+
+        static Part text(String content, Style style) {
+            return new Part(Component.text(content, style), null, style);
+        }
+    }
+}
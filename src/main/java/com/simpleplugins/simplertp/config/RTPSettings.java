@@ -0,0 +1,274 @@
+package com.simpleplugins.simplertp.config;
+
+import com.simpleplugins.simplertp.search.BiomeFilter;
+import com.simpleplugins.simplertp.search.SafetyRules;
+import org.bukkit.Bukkit;
+import org.bukkit.Sound;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Typed, immutable view of config.yml used on the RTP hot path.
+ * <p>
+ * Parsed once on enable and on /srtp reload, then published as a whole (see
+ * {@code SimpleRTP#getSettings()}), so a command never reads YAML and always sees one consistent
+ * version of the configuration. Messages are compiled into a {@link MessageCache} at the same time.
+ */
+public record RTPSettings(
+        String prefix,
+        boolean worldFilterEnabled,
+        Set<String> worlds,
+        String worldList,
+        boolean rtpFromPlayer,
+        int radius,
+        int cooldownSeconds,
+        boolean costEnabled,
+        double costAmount,
+        Sound sound,
+        int columnsPerChunk,
+        int parallelCandidates,
+        Shape shape,
+        int minRadius,
+        boolean haltonSampling,
+        boolean clipToBorder,
+        int verticalScanMinY,
+        int verticalScanMaxY,
+        Set<String> verticalScanWorlds,
+        SafetyRules safetyRules,
+        BiomeFilter biomeFilter,
+        int massMinSpacing,
+        boolean learnRejections,
+        int cooldownSaveIntervalSeconds,
+        Scheduler scheduler,
+        Spacing spacing,
+        Preload preload,
+        Pool pool,
+        Cache cache,
+        Pregen pregen,
+        MessageCache messages
+) {
+
+    /**
+     * Parses the configuration. Invalid values fall back to defaults; an unknown sound is reported
+     * once here instead of on every teleport.
+     */
+    public static RTPSettings from(FileConfiguration config, Logger logger) {
+        boolean filterEnabled = config.getBoolean("world-filter-enabled", false);
+        List<String> worldNames = config.getStringList("worlds");
+
+        Map<String, String> messages = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("messages");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                String value = section.getString(key);
+                if (value != null) {
+                    messages.put(key, value);
+                }
+            }
+        }
+
+        String mode = config.getString("message-delivery", "chat");
+        boolean actionBar = "action_bar".equalsIgnoreCase(mode) || "action-bar".equalsIgnoreCase(mode);
+
+        String prefix = config.getString("prefix", "");
+        if (prefix == null) {
+            prefix = "";
+        }
+        boolean rtpFromPlayer = "player".equalsIgnoreCase(config.getString("rtp-from", "center"));
+        return new RTPSettings(
+                prefix,
+                filterEnabled,
+                Set.copyOf(worldNames),
+                String.join(", ", worldNames),
+                rtpFromPlayer,
+                config.getInt("radius", 1000),
+                config.getInt("cooldown", 0),
+                config.getBoolean("cost-enabled", false),
+                config.getDouble("cost-amount", 0),
+                config.getBoolean("makesound", false) ? resolveSound(config.getString("sound", "entity.enderman.teleport"), logger) : null,
+                Math.max(1, config.getInt("search.columns-per-chunk", 4)),
+                config.getInt("search.parallel-candidates", 1),
+                "disk".equalsIgnoreCase(config.getString("search.shape", "square")) ? Shape.DISK : Shape.SQUARE,
+                Math.max(0, config.getInt("search.min-radius", 0)),
+                !"random".equalsIgnoreCase(config.getString("search.sequence", "halton")),
+                config.getBoolean("search.clip-to-border", true),
+                config.getInt("search.vertical-scan.min-y", 32),
+                config.getInt("search.vertical-scan.max-y", 120),
+                Set.copyOf(config.getStringList("search.vertical-scan.worlds")),
+                SafetyRules.compile(config.getConfigurationSection("search.safety"), logger),
+                BiomeFilter.compile(config.getConfigurationSection("search.biomes")),
+                Math.max(0, config.getInt("mass.min-spacing", 64)),
+                config.getBoolean("search.learn-rejections", true),
+                Math.max(1, config.getInt("cooldown-save-interval", 30)),
+                Scheduler.from(config),
+                Spacing.from(config),
+                Preload.from(config),
+                // Pool, cache and pre-generation store absolute positions, so they only work
+                // around the fixed center
+                Pool.from(config, !rtpFromPlayer),
+                Cache.from(config, !rtpFromPlayer),
+                Pregen.from(config, !rtpFromPlayer),
+                MessageCache.build(prefix, messages, actionBar)
+        );
+    }
+
+    /**
+     * scheduler.*: admission control for searches, chunk loads and teleports.
+     */
+    public record Scheduler(int maxQueue, int maxConcurrentSearches, int chunkLoadsPerTick,
+                            int preloadChunksPerTick, int teleportsPerTick, double maxMspt) {
+
+        static Scheduler from(FileConfiguration config) {
+            return new Scheduler(
+                    Math.max(0, config.getInt("scheduler.max-queue", 100)),
+                    Math.max(1, config.getInt("scheduler.max-concurrent-searches", 4)),
+                    Math.max(1, config.getInt("scheduler.chunk-loads-per-tick", 4)),
+                    Math.max(1, config.getInt("scheduler.preload-chunks-per-tick", 8)),
+                    Math.max(1, config.getInt("scheduler.teleports-per-tick", 5)),
+                    config.getDouble("scheduler.max-mspt", 45.0));
+        }
+    }
+
+    /**
+     * spacing.*: how far searches keep away from players and recent destinations. Enabled only
+     * when min-distance is positive.
+     */
+    public record Spacing(boolean enabled, int minDistance, long destinationTtlSeconds) {
+
+        static Spacing from(FileConfiguration config) {
+            int distance = Math.max(0, config.getInt("spacing.min-distance", 128));
+            return new Spacing(
+                    config.getBoolean("spacing.enabled", true) && distance > 0,
+                    distance,
+                    Math.max(0, config.getLong("spacing.destination-ttl", 300)));
+        }
+    }
+
+    /**
+     * preload.*: chunks loaded around a destination before the teleport.
+     */
+    public record Preload(boolean enabled, int radius, long gracePeriodSeconds) {
+
+        static Preload from(FileConfiguration config) {
+            return new Preload(
+                    config.getBoolean("preload.enabled", true),
+                    Math.max(0, Math.min(8, config.getInt("preload.radius", 2))),
+                    Math.max(1, config.getLong("preload.grace-period", 10)));
+        }
+    }
+
+    /**
+     * pool.*: pre-validated locations per world. Enabled only when rtp-from is "center".
+     */
+    public record Pool(boolean enabled, int size, long maxAgeSeconds, long refillIntervalTicks) {
+
+        static Pool from(FileConfiguration config, boolean fromCenter) {
+            return new Pool(
+                    fromCenter && config.getBoolean("pool.enabled", false),
+                    Math.max(1, config.getInt("pool.size", 10)),
+                    Math.max(0, config.getLong("pool.max-age", 600)),
+                    Math.max(1, config.getLong("pool.refill-interval", 100)));
+        }
+    }
+
+    /**
+     * cache.*: on-disk cache of validated destinations. Enabled only when rtp-from is "center".
+     */
+    public record Cache(boolean enabled, int maxEntries, long maxAgeSeconds, long flushIntervalSeconds) {
+
+        static Cache from(FileConfiguration config, boolean fromCenter) {
+            return new Cache(
+                    fromCenter && config.getBoolean("cache.enabled", true),
+                    Math.max(1, config.getInt("cache.max-entries", 200000)),
+                    Math.max(0, config.getLong("cache.max-age", 604800)),
+                    Math.max(1, config.getLong("cache.flush-interval", 30)));
+        }
+    }
+
+    /**
+     * pregen.*: background pre-generation of the RTP zone. Enabled only when rtp-from is "center".
+     */
+    public record Pregen(boolean enabled, int parallel, int maxPlayers, double maxMspt,
+                         long checkpointIntervalSeconds) {
+
+        static Pregen from(FileConfiguration config, boolean fromCenter) {
+            return new Pregen(
+                    fromCenter && config.getBoolean("pregen.enabled", false),
+                    Math.max(1, config.getInt("pregen.parallel", 2)),
+                    Math.max(0, config.getInt("pregen.max-players", 0)),
+                    config.getDouble("pregen.max-mspt", 30.0),
+                    Math.max(1, config.getLong("pregen.checkpoint-interval", 60)));
+        }
+    }
+
+    /**
+     * Shape of the RTP area around its center.
+     */
+    public enum Shape {
+        /** Every point within radius on X and Z. */
+        SQUARE,
+        /** Every point within radius of the center (a ring when min-radius is set). */
+        DISK
+    }
+
+    /**
+     * True when the offset (dx, dz) from the RTP center lies in the configured area of the given
+     * radius: inside the shape and not closer to the center than min-radius.
+     */
+    public boolean isInArea(int dx, int dz, int radius) {
+        if (shape == Shape.DISK) {
+            long distSq = (long) dx * dx + (long) dz * dz;
+            return distSq <= (long) radius * radius && distSq >= (long) minRadius * minRadius;
+        }
+        int dist = Math.max(Math.abs(dx), Math.abs(dz));
+        return dist <= radius && dist >= minRadius;
+    }
+
+    public boolean isWorldAllowed(String worldName) {
+        return !worldFilterEnabled || worlds.contains(worldName);
+    }
+
+    /**
+     * Loaded worlds where /rtp can be used: the configured worlds when the world filter is enabled,
+     * otherwise every loaded world.
+     */
+    public List<World> rtpWorlds() {
+        if (!worldFilterEnabled) {
+            return Bukkit.getWorlds();
+        }
+        List<World> loaded = new ArrayList<>();
+        for (String name : worlds) {
+            World world = Bukkit.getWorld(name);
+            if (world != null) {
+                loaded.add(world);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Converts a namespaced id like "entity.enderman.teleport" to a Bukkit Sound enum
+     * ("ENTITY_ENDERMAN_TELEPORT"). Returns null when the key is empty or unknown.
+     */
+    private static Sound resolveSound(String soundKey, Logger logger) {
+        if (soundKey == null || soundKey.isEmpty()) {
+            return null;
+        }
+        String enumName = soundKey.toUpperCase(Locale.ROOT).replace('.', '_');
+        try {
+            return Sound.valueOf(enumName);
+        } catch (IllegalArgumentException ex) {
+            logger.warning("Unknown teleport sound '" + soundKey + "'; no sound will be played");
+            return null;
+        }
+    }
+}
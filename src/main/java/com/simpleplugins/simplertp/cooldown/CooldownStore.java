@@ -0,0 +1,153 @@
+package com.simpleplugins.simplertp.cooldown;
+
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Per-player /rtp cooldowns that are safe to use from any thread and survive restarts.
+ * <p>
+ * Only running cooldowns are kept: expired entries are evicted when they are next read and by the
+ * periodic save task, so the store does not grow with every player who ever used /rtp. Changes
+ * are written behind in one batch by an async task every cooldown-save-interval seconds (and on
+ * disable) to {@code plugins/SimpleRTP/cooldowns.bin}, never on the command path.
+ */
+public final class CooldownStore {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Plugin plugin;
+    /**
+     * End of each running cooldown (epoch millis). A boxed map is enough here: it only holds players
+     * whose cooldown is still running (expired entries are dropped on read and by the save task),
+     * is read once per /rtp and written once per teleport, so the one Long per teleport is noise
+     * next to the search and the teleport itself. A UUID does not fit a primitive long key, and a
+     * map keyed by a hash of it could mix up two players.
+     */
+    private final Map<UUID, Long> cooldownEndByUuid = new ConcurrentHashMap<>();
+    private final File file;
+
+    private ServerScheduler.Task saveTask;
+    private volatile boolean dirty;
+
+    public CooldownStore(Plugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "cooldowns.bin");
+    }
+
+    /**
+     * Loads the saved cooldowns (still running ones only). The file only holds running cooldowns,
+     * so this is small enough to read before the first command can arrive.
+     */
+    public void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                long endAt = in.readLong();
+                if (endAt > now) {
+                    cooldownEndByUuid.put(uuid, endAt);
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to load cooldowns", e);
+        }
+    }
+
+    /**
+     * (Re)starts the async task that evicts expired cooldowns and saves changes.
+     */
+    public void start(RTPSettings settings) {
+        stop();
+        long interval = settings.cooldownSaveIntervalSeconds() * 20L;
+        saveTask = new ServerScheduler(plugin).runAsyncTimer(this::saveIfDirty, interval, interval);
+    }
+
+    public void stop() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+    }
+
+    /**
+     * Milliseconds left on the player's cooldown, or 0 if none is running.
+     */
+    public long remainingMillis(UUID uuid) {
+        Long endAt = cooldownEndByUuid.get(uuid);
+        if (endAt == null) {
+            return 0;
+        }
+        long remaining = endAt - System.currentTimeMillis();
+        if (remaining <= 0) {
+            // Only removes the entry if no new cooldown replaced it meanwhile
+            cooldownEndByUuid.remove(uuid, endAt);
+            return 0;
+        }
+        return remaining;
+    }
+
+    /**
+     * Starts a cooldown of the given length for the player.
+     */
+    public void begin(UUID uuid, long durationMillis) {
+        cooldownEndByUuid.put(uuid, System.currentTimeMillis() + durationMillis);
+        dirty = true;
+    }
+
+    /**
+     * Evicts expired cooldowns and writes the file if anything changed since the last save.
+     */
+    public synchronized void saveIfDirty() {
+        long now = System.currentTimeMillis();
+        if (cooldownEndByUuid.values().removeIf(endAt -> endAt <= now)) {
+            dirty = true;
+        }
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Map<UUID, Long> snapshot = Map.copyOf(cooldownEndByUuid);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<UUID, Long> entry : snapshot.entrySet()) {
+                    out.writeLong(entry.getKey().getMostSignificantBits());
+                    out.writeLong(entry.getKey().getLeastSignificantBits());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            // Replace in one step so a crash mid-write never leaves a truncated file behind
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            plugin.getLogger().log(Level.WARNING, "Failed to save cooldowns", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.simpleplugins.simplertp.economy;
+
+import org.bukkit.OfflinePlayer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Result of charging a player for an RTP. A successful charge is either committed once the
+ * teleport succeeded or refunded when it did not; whichever happens first wins, so a player is
+ * never refunded twice or refunded after a successful teleport.
+ */
+public final class EconomyCharge {
+
+    /** Charge for an RTP that costs nothing; committing or refunding it does nothing. */
+    public static final EconomyCharge FREE = new EconomyCharge(null, null, 0, Status.FREE);
+
+    public enum Status {
+        FREE,
+        CHARGED,
+        INSUFFICIENT,
+        FAILED
+    }
+
+    private final EconomyService service;
+    private final OfflinePlayer player;
+    private final double amount;
+    private final Status status;
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    EconomyCharge(EconomyService service, OfflinePlayer player, double amount, Status status) {
+        this.service = service;
+        this.player = player;
+        this.amount = amount;
+        this.status = status;
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    /**
+     * True when the RTP may go ahead: either nothing had to be paid or the amount was withdrawn.
+     */
+    public boolean isPaid() {
+        return status == Status.FREE || status == Status.CHARGED;
+    }
+
+    /**
+     * Keeps the money: the teleport succeeded.
+     */
+    public void commit() {
+        if (settle() && status == Status.CHARGED) {
+            service.settled(this);
+        }
+    }
+
+    /**
+     * Gives the money back (asynchronously) if it was withdrawn and not committed yet.
+     *
+     * @return true if a refund was issued by this call
+     */
+    public boolean refund() {
+        if (status != Status.CHARGED || !settle()) {
+            return false;
+        }
+        service.refund(this);
+        return true;
+    }
+
+    /**
+     * Marks the charge as committed or refunded.
+     *
+     * @return true for the first call only
+     */
+    boolean settle() {
+        return settled.compareAndSet(false, true);
+    }
+
+    OfflinePlayer player() {
+        return player;
+    }
+
+    /**
+     * Amount this charge was made for, as configured when the player was charged.
+     */
+    public double amount() {
+        return amount;
+    }
+}
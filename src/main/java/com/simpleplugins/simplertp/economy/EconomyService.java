@@ -0,0 +1,113 @@
+package com.simpleplugins.simplertp.economy;
+
+import com.simpleplugins.simplertp.SimpleRTP;
+import org.bukkit.OfflinePlayer;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Runs all economy calls of the RTP flow off the main thread.
+ * <p>
+ * Economy backends behind Vault may do blocking database I/O, and many are not written for
+ * concurrent access, so calls run one after another on a single dedicated thread. This also
+ * guarantees that a refund is never processed before the charge it undoes.
+ * <p>
+ * Charges that are neither committed nor refunded when the plugin is disabled (e.g. a teleport
+ * still waiting for its budget) are refunded on shutdown, so nobody pays for an RTP that never
+ * happened.
+ */
+public final class EconomyService {
+
+    private final SimpleRTP plugin;
+    private final ExecutorService executor;
+    /** Withdrawn charges that were neither committed nor refunded yet. */
+    private final Set<EconomyCharge> outstanding = ConcurrentHashMap.newKeySet();
+
+    public EconomyService(SimpleRTP plugin) {
+        this.plugin = plugin;
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "SimpleRTP-Economy");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks the balance and withdraws the amount on the economy thread. The returned future is
+     * completed on that thread; callers must switch to the main thread before touching the world.
+     */
+    public CompletableFuture<EconomyCharge> charge(OfflinePlayer player, double amount) {
+        return CompletableFuture.supplyAsync(() -> {
+            VaultEconomy economy = plugin.getEconomy();
+            if (economy == null) {
+                return new EconomyCharge(this, player, amount, EconomyCharge.Status.FAILED);
+            }
+            if (!economy.hasEnough(player, amount)) {
+                return new EconomyCharge(this, player, amount, EconomyCharge.Status.INSUFFICIENT);
+            }
+            EconomyCharge.Status status = economy.withdraw(player, amount)
+                    ? EconomyCharge.Status.CHARGED
+                    : EconomyCharge.Status.FAILED;
+            EconomyCharge charge = new EconomyCharge(this, player, amount, status);
+            if (status == EconomyCharge.Status.CHARGED) {
+                outstanding.add(charge);
+            }
+            return charge;
+        }, executor);
+    }
+
+    /**
+     * Deposits a charged amount back. Called once per charge by {@link EconomyCharge#refund()}.
+     */
+    void refund(EconomyCharge charge) {
+        outstanding.remove(charge);
+        executor.execute(() -> deposit(charge));
+    }
+
+    /**
+     * Forgets a committed charge. Called once per charge by {@link EconomyCharge#commit()}.
+     */
+    void settled(EconomyCharge charge) {
+        outstanding.remove(charge);
+    }
+
+    /**
+     * Refunds every charge that is still outstanding once the queued charges and refunds ran, then
+     * stops accepting work and waits briefly for them to finish.
+     */
+    public void shutdown() {
+        // Runs after every charge queued before it, so those are refunded too if nothing settles them
+        executor.execute(() -> {
+            for (EconomyCharge charge : outstanding) {
+                if (charge.settle()) {
+                    deposit(charge);
+                }
+            }
+            outstanding.clear();
+        });
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Economy calls were still running on shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            plugin.getLogger().log(Level.WARNING, "Interrupted while waiting for economy calls", e);
+        }
+    }
+
+    private void deposit(EconomyCharge charge) {
+        OfflinePlayer player = charge.player();
+        VaultEconomy economy = plugin.getEconomy();
+        if (economy == null || !economy.deposit(player, charge.amount())) {
+            plugin.getLogger().severe("Could not refund " + charge.amount() + " to " + player.getName()
+                    + " (" + player.getUniqueId() + ") for a failed RTP; refund it manually");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.simpleplugins.simplertp.economy;
+
+import org.bukkit.OfflinePlayer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Access to a Vault Economy provider without depending on Vault at compile/load time.
+ * <p>
+ * The Economy methods are looked up once (on enable and reload) as {@link MethodHandle}s on the
+ * Vault interface and bound to the provider, so each call on the paid-RTP path is a direct
+ * invocation instead of a reflective lookup. Lookup failures and failing calls are logged.
+ */
+public final class VaultEconomy {
+
+    private static final String ECONOMY_CLASS = "net.milkbowl.vault.economy.Economy";
+    private static final String RESPONSE_CLASS = "net.milkbowl.vault.economy.EconomyResponse";
+
+    private final Logger logger;
+    private final MethodHandle getBalance;
+    private final MethodHandle hasAccount;
+    private final MethodHandle withdraw;
+    private final MethodHandle deposit;
+    private final MethodHandle transactionSuccess;
+
+    private VaultEconomy(Logger logger, MethodHandle getBalance, MethodHandle hasAccount,
+                         MethodHandle withdraw, MethodHandle deposit, MethodHandle transactionSuccess) {
+        this.logger = logger;
+        this.getBalance = getBalance;
+        this.hasAccount = hasAccount;
+        this.withdraw = withdraw;
+        this.deposit = deposit;
+        this.transactionSuccess = transactionSuccess;
+    }
+
+    /**
+     * Binds the Economy methods to the given provider. Returns null (and logs why) when the Vault
+     * classes or methods cannot be resolved.
+     */
+    public static VaultEconomy resolve(Object provider, Logger logger) {
+        try {
+            Class<?> economyClass = Class.forName(ECONOMY_CLASS);
+            Class<?> responseClass = Class.forName(RESPONSE_CLASS);
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+            MethodHandle getBalance = lookup.findVirtual(economyClass, "getBalance",
+                            MethodType.methodType(double.class, OfflinePlayer.class))
+                    .bindTo(provider);
+            MethodHandle hasAccount = lookup.findVirtual(economyClass, "hasAccount",
+                            MethodType.methodType(boolean.class, OfflinePlayer.class))
+                    .bindTo(provider);
+            MethodHandle withdraw = lookup.findVirtual(economyClass, "withdrawPlayer",
+                            MethodType.methodType(responseClass, OfflinePlayer.class, double.class))
+                    .bindTo(provider)
+                    .asType(MethodType.methodType(Object.class, OfflinePlayer.class, double.class));
+            MethodHandle deposit = lookup.findVirtual(economyClass, "depositPlayer",
+                            MethodType.methodType(responseClass, OfflinePlayer.class, double.class))
+                    .bindTo(provider)
+                    .asType(MethodType.methodType(Object.class, OfflinePlayer.class, double.class));
+            MethodHandle transactionSuccess = lookup.findVirtual(responseClass, "transactionSuccess",
+                            MethodType.methodType(boolean.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class));
+
+            return new VaultEconomy(logger, getBalance, hasAccount, withdraw, deposit, transactionSuccess);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            logger.log(Level.WARNING, "Could not bind to the Vault economy provider; RTP cost is unavailable", e);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the player has at least the given amount.
+     */
+    public boolean hasEnough(OfflinePlayer player, double amount) {
+        try {
+            return (double) getBalance.invokeExact(player) >= amount;
+        } catch (Throwable t) {
+            logger.log(Level.WARNING, "Economy getBalance failed for " + player.getName(), t);
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the player has an economy account.
+     */
+    public boolean hasAccount(OfflinePlayer player) {
+        try {
+            return (boolean) hasAccount.invokeExact(player);
+        } catch (Throwable t) {
+            logger.log(Level.WARNING, "Economy hasAccount failed for " + player.getName(), t);
+            return false;
+        }
+    }
+
+    /**
+     * Withdraws the amount from the player. Returns true if the transaction succeeded.
+     */
+    public boolean withdraw(OfflinePlayer player, double amount) {
+        try {
+            Object response = (Object) withdraw.invokeExact(player, amount);
+            return response != null && (boolean) transactionSuccess.invokeExact(response);
+        } catch (Throwable t) {
+            logger.log(Level.WARNING, "Economy withdraw of " + amount + " failed for " + player.getName(), t);
+            return false;
+        }
+    }
+
+    /**
+     * Deposits the amount to the player. Returns true if the transaction succeeded.
+     */
+    public boolean deposit(OfflinePlayer player, double amount) {
+        try {
+            Object response = (Object) deposit.invokeExact(player, amount);
+            return response != null && (boolean) transactionSuccess.invokeExact(response);
+        } catch (Throwable t) {
+            logger.log(Level.WARNING, "Economy deposit of " + amount + " failed for " + player.getName(), t);
+            return false;
+        }
+    }
+}
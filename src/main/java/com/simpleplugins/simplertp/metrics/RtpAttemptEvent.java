@@ -0,0 +1,82 @@
+package com.simpleplugins.simplertp.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event spanning one candidate of a search: sampling, the chunk load, the
+ * snapshot and the safety check. Searches only create one when {@link #isRecorded()} (or the
+ * request's event needs the chunk load wait), so no event is allocated per candidate while JFR is
+ * off.
+ */
+@Name("simplertp.Attempt")
+@Label("RTP Candidate Attempt")
+@Category("SimpleRTP")
+@Description("One candidate chunk of a random teleport search")
+@StackTrace(false)
+public final class RtpAttemptEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(RtpAttemptEvent.class);
+
+    @Label("World")
+    String world;
+
+    @Label("X")
+    int x;
+
+    @Label("Z")
+    int z;
+
+    @Label("Attempt")
+    @Description("Number of this candidate within its search, starting at 1")
+    int attempt;
+
+    @Label("Redraws")
+    @Description("Samples redrawn before this candidate (filtered biome, crowded, learned rejections)")
+    int redraws;
+
+    @Label("Chunk Load Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long chunkLoadWait;
+
+    @Label("Outcome")
+    @Description("safe, or why the candidate was rejected: unsafe, too-close, search-complete or error")
+    String outcome;
+
+    /**
+     * True while a running recording has this event enabled.
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+
+    public void chunkLoaded(long chunkLoadWaitNanos) {
+        this.chunkLoadWait = chunkLoadWaitNanos;
+    }
+
+    public long chunkLoadWait() {
+        return chunkLoadWait;
+    }
+
+    /**
+     * Ends the event and commits it when recorded.
+     */
+    public void finish(String world, int x, int z, int attempt, int redraws, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+            this.attempt = attempt;
+            this.redraws = redraws;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
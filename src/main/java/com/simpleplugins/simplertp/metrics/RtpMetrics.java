@@ -0,0 +1,157 @@
+package com.simpleplugins.simplertp.metrics;
+
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings of each phase of the RTP pipeline and event counters, per world and over all worlds,
+ * shown by /srtp stats and (optionally) sent to bStats.
+ * <p>
+ * Everything is lock-free and recording allocates nothing once a world has been seen, so it can be
+ * called from the main thread and from async workers on every request and candidate.
+ */
+public final class RtpMetrics {
+
+    /**
+     * Phases of an RTP request. Times are measured from the start of the phase to its end, waits
+     * for the scheduler's budgets included.
+     */
+    public enum Phase {
+        /** Permission, world, cooldown and queue checks of /rtp. */
+        CHECKS("checks"),
+        /** Charging the cost through Vault, off the main thread. */
+        ECONOMY("economy"),
+        /** Drawing one candidate, including redraws of rejected samples. */
+        SAMPLING("sampling"),
+        /** Loading one candidate chunk, including the wait for the chunk-load budget. */
+        CHUNK_LOAD("chunk-load"),
+        /** Checking the columns of one candidate chunk against its snapshot. */
+        SAFETY("safety"),
+        /** Preloading the destination, waiting for the teleport budget and the teleport itself. */
+        TELEPORT("teleport"),
+        /** A whole request, from /rtp to the player standing at the destination. */
+        TOTAL("total");
+
+        private final String displayName;
+
+        Phase(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String displayName() {
+            return displayName;
+        }
+    }
+
+    public enum Counter {
+        /** Requests admitted to the search (one per player for /rtp --all and /rtp --group). */
+        REQUESTS,
+        /** Successful teleports. */
+        TELEPORTS,
+        /** Requests that ended with the "failed" message. */
+        FAILURES,
+        /** Candidate chunks tried by searches. */
+        CANDIDATES,
+        /** Chunks loaded by searches and rechecks. */
+        CHUNK_LOADS
+    }
+
+    private final Map<UUID, WorldMetrics> worlds = new ConcurrentHashMap<>();
+    private final WorldMetrics all = new WorldMetrics("all worlds");
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * Records the time elapsed since startNanos (from {@link System#nanoTime()}) for the phase.
+     */
+    public void record(World world, Phase phase, long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        all.phases[phase.ordinal()].record(micros);
+        of(world).phases[phase.ordinal()].record(micros);
+    }
+
+    public void count(World world, Counter counter) {
+        all.counters[counter.ordinal()].increment();
+        of(world).counters[counter.ordinal()].increment();
+    }
+
+    /**
+     * Totals over all worlds.
+     */
+    public WorldMetrics all() {
+        return all;
+    }
+
+    /**
+     * Metrics of every world that had RTP activity since the last reset.
+     */
+    public Collection<WorldMetrics> worlds() {
+        List<WorldMetrics> list = new ArrayList<>(worlds.values());
+        list.sort((a, b) -> a.name.compareToIgnoreCase(b.name));
+        return list;
+    }
+
+    /**
+     * Time of the last reset (or of the start), in epoch milliseconds.
+     */
+    public long since() {
+        return since;
+    }
+
+    public void reset() {
+        worlds.clear();
+        all.reset();
+        since = System.currentTimeMillis();
+    }
+
+    private WorldMetrics of(World world) {
+        WorldMetrics metrics = worlds.get(world.getUID());
+        if (metrics == null) {
+            metrics = worlds.computeIfAbsent(world.getUID(), uid -> new WorldMetrics(world.getName()));
+        }
+        return metrics;
+    }
+
+    public static final class WorldMetrics {
+        private final String name;
+        private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+        private final LongAdder[] counters = new LongAdder[Counter.values().length];
+
+        WorldMetrics(String name) {
+            this.name = name;
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = new LongAdder();
+            }
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public LatencyHistogram phase(Phase phase) {
+            return phases[phase.ordinal()];
+        }
+
+        public long count(Counter counter) {
+            return counters[counter.ordinal()].sum();
+        }
+
+        void reset() {
+            for (LatencyHistogram histogram : phases) {
+                histogram.reset();
+            }
+            for (LongAdder counter : counters) {
+                counter.reset();
+            }
+        }
+    }
+}
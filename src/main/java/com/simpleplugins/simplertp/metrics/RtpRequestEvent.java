@@ -0,0 +1,95 @@
+package com.simpleplugins.simplertp.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.bukkit.Location;
+
+/**
+ * Java Flight Recorder event spanning one RTP request, from the command to the teleport or the
+ * failure, so RTP activity lines up with GC and tick spikes in the same recording.
+ * <p>
+ * One event object is created per request and carried along; searches add their candidate
+ * attempts to it on the main thread. While no recording has the event enabled,
+ * {@link #finish} only checks {@link #shouldCommit()}.
+ */
+@Name("simplertp.Request")
+@Label("RTP Request")
+@Category("SimpleRTP")
+@Description("One random teleport request, from the command to the teleport or failure")
+@StackTrace(false)
+public final class RtpRequestEvent extends Event {
+
+    @Label("Player")
+    String player;
+
+    @Label("World")
+    String world;
+
+    @Label("Source")
+    @Description("Where the destination came from: search, pool, cache or mass")
+    String source;
+
+    @Label("Attempts")
+    @Description("Candidate chunks tried by the search")
+    int attempts;
+
+    @Label("Chunk Load Wait")
+    @Description("Total time the search waited for candidate chunks")
+    @Timespan(Timespan.NANOSECONDS)
+    long chunkLoadWait;
+
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Z")
+    int z;
+
+    @Label("Outcome")
+    @Description("teleported, failed, insufficient-funds, queue-full or offline")
+    String outcome;
+
+    /**
+     * Creates the event and starts its timing.
+     */
+    public RtpRequestEvent(String player, String world) {
+        this.player = player;
+        this.world = world;
+        begin();
+    }
+
+    public void source(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Counts one candidate chunk of the search and the time waited for it.
+     */
+    public void attempt(long chunkLoadWaitNanos) {
+        attempts++;
+        chunkLoadWait += chunkLoadWaitNanos;
+    }
+
+    /**
+     * Ends the event and commits it when recorded; destination may be null.
+     */
+    public void finish(String outcome, Location destination) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            if (destination != null) {
+                x = destination.getBlockX();
+                y = destination.getBlockY();
+                z = destination.getBlockZ();
+            }
+            commit();
+        }
+    }
+}
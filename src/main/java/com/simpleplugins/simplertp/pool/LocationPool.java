@@ -0,0 +1,224 @@
+package com.simpleplugins.simplertp.pool;
+
+import com.simpleplugins.simplertp.SimpleRTP;
+import com.simpleplugins.simplertp.cache.DestinationCache;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import com.simpleplugins.simplertp.search.SafeLocationFinder;
+import com.simpleplugins.simplertp.search.SpacingIndex;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps a small pool of pre-validated safe locations per world and radius, so /rtp can usually
+ * take a destination immediately instead of waiting for a live search.
+ * <p>
+ * A background task tops every pool up to the configured size, running at most one search per
+ * pool at a time so refilling stays low priority. Pools are only used when rtp-from is "center",
+ * since player-centered searches cannot be prepared in advance. All state is accessed on the
+ * main thread (the global region thread on Folia) only.
+ */
+public final class LocationPool {
+
+    private final SimpleRTP plugin;
+    private final SafeLocationFinder finder;
+    private final DestinationCache cache;
+    private final Map<Profile, ArrayDeque<PooledLocation>> pools = new HashMap<>();
+    private final Set<Profile> refilling = new HashSet<>();
+
+    private ServerScheduler.Task refillTask;
+    private boolean enabled;
+    private int size;
+    private long maxAgeMillis;
+
+    public LocationPool(SimpleRTP plugin, SafeLocationFinder finder, DestinationCache cache) {
+        this.plugin = plugin;
+        this.finder = finder;
+        this.cache = cache;
+    }
+
+    /**
+     * Applies the pool settings of the snapshot and restarts the refill task. All pooled entries are
+     * dropped, since any reload may change what a valid destination is (radius, shape, min-radius,
+     * spacing, world filter, safety rules); the pools are refilled with the new settings.
+     */
+    public void start(RTPSettings settings) {
+        stop();
+        RTPSettings.Pool config = settings.pool();
+        enabled = config.enabled();
+        size = config.size();
+        maxAgeMillis = config.maxAgeSeconds() * 1000L;
+        pools.clear();
+        if (!enabled) {
+            return;
+        }
+
+        long interval = config.refillIntervalTicks();
+        refillTask = new ServerScheduler(plugin).runTimer(this::refill, interval, interval);
+    }
+
+    public void stop() {
+        if (refillTask != null) {
+            refillTask.cancel();
+            refillTask = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a pooled location for the world and radius, rechecking it before use. Stale entries are
+     * discarded and the next one is tried; entries near players or recent destinations are skipped.
+     * Completes (on the main thread) with null when the pool has no usable entry, in which case the
+     * caller should fall back to a live search.
+     */
+    public CompletableFuture<Location> take(World world, int radius) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ArrayDeque<PooledLocation> pool = pools.get(new Profile(world.getUID(), radius));
+        CompletableFuture<Location> result = new CompletableFuture<>();
+        takeNext(pool, result);
+        return result;
+    }
+
+    private void takeNext(ArrayDeque<PooledLocation> pool, CompletableFuture<Location> result) {
+        PooledLocation entry = pool != null ? pollUsable(pool) : null;
+        if (entry == null) {
+            result.complete(null);
+            return;
+        }
+        finder.recheck(entry.location()).whenComplete((safe, error) -> {
+            if (error == null && Boolean.TRUE.equals(safe)) {
+                result.complete(entry.location());
+            } else {
+                takeNext(pool, result);
+            }
+        });
+    }
+
+    /**
+     * Removes and returns the first entry that is not expired and not crowded, dropping expired
+     * entries on the way. Crowded entries (a player or a recent destination within spacing
+     * min-distance) stay pooled, since the crowd usually moves on.
+     */
+    private PooledLocation pollUsable(ArrayDeque<PooledLocation> pool) {
+        long now = System.currentTimeMillis();
+        SpacingIndex spacing = plugin.getSpacingIndex();
+        Iterator<PooledLocation> it = pool.iterator();
+        while (it.hasNext()) {
+            PooledLocation entry = it.next();
+            if (isExpired(entry, now)) {
+                it.remove();
+                continue;
+            }
+            Location loc = entry.location();
+            if (!spacing.isCrowded(loc.getWorld(), loc.getBlockX(), loc.getBlockZ())) {
+                it.remove();
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a validated location to the pool of its world, if that pool is not full yet. Locations
+     * outside the current world filter or RTP area are ignored, so a search started before a reload
+     * cannot put a destination of the old settings back into the pool. Returns whether the location
+     * was pooled.
+     */
+    public boolean offer(Location loc, int radius) {
+        World world = loc.getWorld();
+        RTPSettings settings = plugin.getSettings();
+        if (!enabled || world == null || !settings.isWorldAllowed(world.getName())
+                || !settings.isInArea(loc.getBlockX(), loc.getBlockZ(), radius)) {
+            return false;
+        }
+        ArrayDeque<PooledLocation> pool = pools.computeIfAbsent(new Profile(world.getUID(), radius), k -> new ArrayDeque<>());
+        if (pool.size() >= size) {
+            return false;
+        }
+        pool.addLast(new PooledLocation(loc, System.currentTimeMillis()));
+        return true;
+    }
+
+    /**
+     * True when the pool for the world and radius is enabled and not full, so a location offered
+     * now would be kept.
+     */
+    public boolean wants(World world, int radius) {
+        return enabled && size(world, radius) < size;
+    }
+
+    /**
+     * Number of pooled locations for the world and radius.
+     */
+    public int size(World world, int radius) {
+        ArrayDeque<PooledLocation> pool = pools.get(new Profile(world.getUID(), radius));
+        return pool != null ? pool.size() : 0;
+    }
+
+    private void refill() {
+        int radius = plugin.getSettings().radius();
+        long now = System.currentTimeMillis();
+
+        for (World world : plugin.getSettings().rtpWorlds()) {
+            Profile profile = new Profile(world.getUID(), radius);
+            ArrayDeque<PooledLocation> pool = pools.computeIfAbsent(profile, k -> new ArrayDeque<>());
+            pruneStale(pool, now);
+
+            if (pool.size() >= size || !refilling.add(profile)) {
+                continue;
+            }
+            // Destinations cached on disk only need a recheck, so use them before sampling new ones
+            cache.take(world, radius).thenCompose(cached -> {
+                if (cached != null) {
+                    return CompletableFuture.completedFuture(cached);
+                }
+                return finder.find(world, 0, 0, radius);
+            }).whenComplete((loc, error) -> {
+                refilling.remove(profile);
+                // A location is either pooled or cached, so it cannot be handed out twice
+                if (error == null && loc != null && !offer(loc, radius)) {
+                    cache.record(loc);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops entries that expired or fell outside the world border. Block changes are caught by the
+     * recheck in {@link #take(World, int)}, which is cheaper than tracking every block update.
+     */
+    private void pruneStale(ArrayDeque<PooledLocation> pool, long now) {
+        Iterator<PooledLocation> it = pool.iterator();
+        while (it.hasNext()) {
+            PooledLocation entry = it.next();
+            World world = entry.location().getWorld();
+            if (isExpired(entry, now) || world == null || !world.getWorldBorder().isInside(entry.location())) {
+                it.remove();
+            }
+        }
+    }
+
+    private boolean isExpired(PooledLocation entry, long now) {
+        return maxAgeMillis > 0 && now - entry.createdAt() > maxAgeMillis;
+    }
+
+    private record Profile(UUID worldId, int radius) {
+    }
+
+    private record PooledLocation(Location location, long createdAt) {
+    }
+}
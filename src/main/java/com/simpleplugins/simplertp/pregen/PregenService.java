@@ -0,0 +1,279 @@
+package com.simpleplugins.simplertp.pregen;
+
+import com.simpleplugins.simplertp.SimpleRTP;
+import com.simpleplugins.simplertp.cache.DestinationCache;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.pool.LocationPool;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import com.simpleplugins.simplertp.search.SafeLocationFinder;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Generates the chunks of the RTP zone in the background while the server is quiet, so /rtp on a
+ * new map does not wait for world generation.
+ * <p>
+ * The zone is the square of chunks within radius blocks of 0,0 (only with rtp-from "center").
+ * Chunks are visited in a square spiral from the center outwards, so neighbouring chunks are
+ * generated one after another and the most used part of the zone is warmed first. Chunks are
+ * generated with low-priority async loads, at most pregen.parallel at a time, and only while the
+ * average tick time is below pregen.max-mspt and at most pregen.max-players are online.
+ * <p>
+ * Progress is saved to {@code plugins/SimpleRTP/pregen.yml} every checkpoint-interval seconds and
+ * on disable, and restarts from the center when the radius changes. Generated chunks are
+ * sampled for safe locations that feed the location pool and the destination cache. All state is
+ * accessed on the main thread (the global region thread on Folia) only.
+ */
+public final class PregenService {
+
+    /** Every n-th generated chunk is sampled for the destination cache while the pool is full. */
+    private static final int CACHE_SAMPLE_INTERVAL = 16;
+    /** Spiral positions looked at per tick at most, so a zone mostly outside the border cannot stall a tick. */
+    private static final int MAX_VISITED_PER_TICK = 256;
+
+    private final SimpleRTP plugin;
+    private final SafeLocationFinder finder;
+    private final LocationPool pool;
+    private final DestinationCache cache;
+    private final File file;
+    private final Map<UUID, Progress> progress = new HashMap<>();
+
+    private final ServerScheduler scheduler;
+
+    private ServerScheduler.Task tickTask;
+    private ServerScheduler.Task checkpointTask;
+    private boolean loaded;
+    private int parallel;
+    private int maxPlayers;
+    private double maxMspt;
+    private int inFlight;
+
+    public PregenService(SimpleRTP plugin, SafeLocationFinder finder, LocationPool pool, DestinationCache cache) {
+        this.plugin = plugin;
+        this.finder = finder;
+        this.pool = pool;
+        this.cache = cache;
+        this.scheduler = new ServerScheduler(plugin);
+        this.file = new File(plugin.getDataFolder(), "pregen.yml");
+    }
+
+    /**
+     * Applies the pre-generation settings of the snapshot and starts generating when enabled.
+     */
+    public void start(RTPSettings settings) {
+        stop();
+        RTPSettings.Pregen config = settings.pregen();
+        if (!config.enabled()) {
+            return;
+        }
+        parallel = config.parallel();
+        maxPlayers = config.maxPlayers();
+        maxMspt = config.maxMspt();
+        if (!loaded) {
+            load();
+            loaded = true;
+        }
+
+        tickTask = scheduler.runTimer(this::tick, 20L, 1L);
+        long interval = config.checkpointIntervalSeconds() * 20L;
+        checkpointTask = scheduler.runTimer(() -> save(true), interval, interval);
+    }
+
+    /**
+     * Stops generating and saves the progress. Chunks still loading finish on their own.
+     */
+    public void stop() {
+        if (tickTask == null) {
+            return;
+        }
+        tickTask.cancel();
+        tickTask = null;
+        checkpointTask.cancel();
+        checkpointTask = null;
+        save(false);
+    }
+
+    private void tick() {
+        if (inFlight >= parallel
+                || Bukkit.getOnlinePlayers().size() > maxPlayers
+                || Bukkit.getAverageTickTime() > maxMspt) {
+            return;
+        }
+        int radius = plugin.getSettings().radius();
+
+        for (World world : plugin.getSettings().rtpWorlds()) {
+            Progress entry = progress.get(world.getUID());
+            if (entry == null || entry.radius != radius) {
+                entry = new Progress(radius);
+                progress.put(world.getUID(), entry);
+            }
+            WorldBorder border = world.getWorldBorder();
+            int chunkRadius = clipToBorder((radius + 15) >> 4, border);
+            long total = (2L * chunkRadius + 1) * (2L * chunkRadius + 1);
+            if (entry.next >= total) {
+                continue;
+            }
+            // Finish one world before starting the next, so its chunks stay close together
+            int visited = 0;
+            while (inFlight < parallel && entry.next < total && visited++ < MAX_VISITED_PER_TICK) {
+                generate(world, border, entry, total, radius);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Limits the spiral to the chunks that can lie inside the world border, so a radius larger than
+     * the border does not walk millions of positions outside it.
+     */
+    private static int clipToBorder(int chunkRadius, WorldBorder border) {
+        double half = border.getSize() / 2;
+        Location center = border.getCenter();
+        double extent = Math.max(Math.abs(center.getX()) + half, Math.abs(center.getZ()) + half);
+        return (int) Math.min(chunkRadius, ((long) Math.ceil(extent) + 15) >> 4);
+    }
+
+    /**
+     * Starts generating the next chunk of the spiral that lies inside the world border.
+     */
+    private void generate(World world, WorldBorder border, Progress entry, long total, int radius) {
+        long index = entry.next++;
+        int[] offset = spiral(index);
+        int chunkX = offset[0];
+        int chunkZ = offset[1];
+        if (entry.next == total) {
+            plugin.getLogger().info("Pre-generation of the RTP zone of " + world.getName() + " finished");
+        }
+        if (!border.isInside(new Location(world, (chunkX << 4) + 8, 0, (chunkZ << 4) + 8))) {
+            return;
+        }
+
+        inFlight++;
+        entry.loading.add(index);
+        // On Folia the load completes on the chunk's region thread; the counters live on the global one
+        world.getChunkAtAsync(chunkX, chunkZ, true, false).whenCompleteAsync((chunk, error) -> {
+            inFlight--;
+            entry.loading.remove(index);
+            if (error != null || chunk == null) {
+                return;
+            }
+            if (pool.wants(world, radius) || index % CACHE_SAMPLE_INTERVAL == 0) {
+                sample(chunk, radius);
+            }
+        }, scheduler.global());
+    }
+
+    private void sample(Chunk chunk, int radius) {
+        finder.scanLoaded(chunk, 0, 0, radius).thenAccept(found -> {
+            if (found != null && !pool.offer(found, radius)) {
+                cache.record(found);
+            }
+        });
+    }
+
+    /**
+     * Chunk offset of the index-th chunk of a square spiral around 0,0: index 0 is the center,
+     * ring k (k >= 1) holds indices (2k - 1)^2 until (2k + 1)^2 - 1.
+     */
+    private static int[] spiral(long index) {
+        if (index == 0) {
+            return new int[]{0, 0};
+        }
+        int k = (int) ((Math.sqrt(index) + 1) / 2);
+        // Correct floating point rounding at ring boundaries
+        while ((2L * k + 1) * (2L * k + 1) <= index) {
+            k++;
+        }
+        while ((2L * k - 1) * (2L * k - 1) > index) {
+            k--;
+        }
+        int pos = (int) (index - (2L * k - 1) * (2L * k - 1));
+        int side = pos / (2 * k);
+        int off = pos % (2 * k);
+        return switch (side) {
+            case 0 -> new int[]{k, -k + 1 + off};
+            case 1 -> new int[]{k - 1 - off, k};
+            case 2 -> new int[]{-k, k - 1 - off};
+            default -> new int[]{-k + 1 + off, -k};
+        };
+    }
+
+    private void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        YamlConfiguration yaml = new YamlConfiguration();
+        try {
+            yaml.load(file);
+        } catch (IOException | InvalidConfigurationException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to load pre-generation progress", e);
+            return;
+        }
+        for (String key : yaml.getKeys(false)) {
+            try {
+                Progress entry = new Progress(yaml.getInt(key + ".radius"));
+                entry.next = yaml.getLong(key + ".next");
+                progress.put(UUID.fromString(key), entry);
+            } catch (IllegalArgumentException ignored) {
+                // Not a world UUID
+            }
+        }
+    }
+
+    /**
+     * Writes the progress per world. Loads can complete out of order, so the saved position is the
+     * lowest index still loading: a restart repeats at most a few chunks, which are then simply
+     * loaded instead of generated, and never skips one.
+     */
+    private void save(boolean async) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (Map.Entry<UUID, Progress> entry : progress.entrySet()) {
+            yaml.set(entry.getKey() + ".radius", entry.getValue().radius);
+            Progress state = entry.getValue();
+            yaml.set(entry.getKey() + ".next", state.loading.isEmpty() ? state.next : state.loading.first());
+        }
+        String data = yaml.saveToString();
+        Runnable write = () -> {
+            try {
+                Files.createDirectories(file.getParentFile().toPath());
+                Files.writeString(file.toPath(), data, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to save pre-generation progress", e);
+            }
+        };
+        if (async) {
+            scheduler.async().execute(write);
+        } else {
+            write.run();
+        }
+    }
+
+    /**
+     * Next spiral index to generate in a world, for the radius the spiral was started with, and the
+     * spiral indices of the world's chunks still loading.
+     */
+    private static final class Progress {
+        final int radius;
+        final TreeSet<Long> loading = new TreeSet<>();
+        long next;
+
+        Progress(int radius) {
+            this.radius = radius;
+        }
+    }
+}
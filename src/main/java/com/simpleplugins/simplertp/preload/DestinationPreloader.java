@@ -0,0 +1,157 @@
+package com.simpleplugins.simplertp.preload;
+
+import com.simpleplugins.simplertp.SimpleRTP;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+/**
+ * Loads the chunks around a destination before the player is teleported there, so the player
+ * arrives in an area that is already loaded instead of the server loading (or generating) it on
+ * arrival.
+ * <p>
+ * Every chunk within preload.radius chunks of the destination is loaded asynchronously through the
+ * scheduler's preload budget and then held with a plugin chunk ticket, so it is not unloaded
+ * again before the player arrives. Chunks that are already loaded are only ticketed. Tickets are
+ * released preload.grace-period seconds after the area finished loading; by then the player
+ * holds the chunks. Tickets are reference counted, so overlapping destinations keep their shared
+ * chunks until the last one is released. A chunk's tickets are only changed on the thread that
+ * owns it: the main thread on Paper, the chunk's region thread on Folia.
+ */
+public final class DestinationPreloader {
+
+    private final SimpleRTP plugin;
+    private final Executor chunkLoads;
+    private final Map<ChunkKey, Integer> tickets = new ConcurrentHashMap<>();
+    private final ServerScheduler scheduler;
+
+    private boolean enabled;
+    private int radius;
+    private long gracePeriodTicks;
+
+    /**
+     * @param chunkLoads executor the chunk loads are started on, used to throttle preload chunk loads
+     */
+    public DestinationPreloader(SimpleRTP plugin, Executor chunkLoads) {
+        this.plugin = plugin;
+        this.chunkLoads = chunkLoads;
+        this.scheduler = new ServerScheduler(plugin);
+    }
+
+    /**
+     * Applies the preload settings of the snapshot. Tickets already held are released on their own
+     * schedule.
+     */
+    public void start(RTPSettings settings) {
+        RTPSettings.Preload config = settings.preload();
+        enabled = config.enabled();
+        radius = config.radius();
+        gracePeriodTicks = config.gracePeriodSeconds() * 20L;
+    }
+
+    /**
+     * Releases every ticket this plugin holds.
+     */
+    public void stop() {
+        tickets.clear();
+        for (World world : Bukkit.getWorlds()) {
+            world.removePluginChunkTickets(plugin);
+        }
+    }
+
+    /**
+     * Loads and tickets the chunks around the destination. Completes on the main thread (the global
+     * region thread on Folia) once all of them are loaded; chunks that fail to load are skipped (and
+     * the first failure is logged), so the future never fails.
+     */
+    public CompletableFuture<Void> preload(Location destination) {
+        World world = destination.getWorld();
+        if (!enabled || world == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int centerX = destination.getBlockX() >> 4;
+        int centerZ = destination.getBlockZ() >> 4;
+        Collection<ChunkKey> held = new ConcurrentLinkedQueue<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                ChunkKey key = new ChunkKey(world.getUID(), centerX + dx, centerZ + dz);
+                Executor region = scheduler.region(world, key.x(), key.z());
+                // Chunks that are already loaded (common around pooled destinations and other
+                // players) skip the load budget and are only ticketed. The preload budget's queue
+                // belongs to the global thread, so loads are queued from there
+                loads.add(CompletableFuture.supplyAsync(() -> world.isChunkLoaded(key.x(), key.z()), region)
+                        .thenComposeAsync(loaded -> loaded
+                                ? CompletableFuture.<Chunk>completedFuture(null)
+                                : load(world, key), scheduler.global())
+                        .thenAcceptAsync(chunk -> {
+                            // The chunk is loaded now, so adding the ticket does not load it synchronously
+                            acquire(world, key);
+                            held.add(key);
+                        }, region)
+                        .exceptionally(error -> {
+                            failure.compareAndSet(null, error);
+                            return null;
+                        }));
+            }
+        }
+
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+                .thenRunAsync(() -> {
+                    Throwable error = failure.get();
+                    if (error != null) {
+                        // Logged once per destination; the area is teleported to with what did load
+                        plugin.getLogger().log(Level.WARNING, "Failed to preload chunks around " + world.getName()
+                                + " " + destination.getBlockX() + ", " + destination.getBlockZ(), error);
+                    }
+                    scheduler.runLater(() -> release(held), gracePeriodTicks);
+                }, scheduler.global());
+    }
+
+    private CompletableFuture<Chunk> load(World world, ChunkKey key) {
+        return CompletableFuture.supplyAsync(() -> world.getChunkAtAsync(key.x(), key.z()), chunkLoads)
+                .thenCompose(future -> future);
+    }
+
+    private void acquire(World world, ChunkKey key) {
+        if (tickets.merge(key, 1, Integer::sum) == 1) {
+            world.addPluginChunkTicket(key.x(), key.z(), plugin);
+        }
+    }
+
+    private void release(Collection<ChunkKey> keys) {
+        for (ChunkKey key : keys) {
+            World world = Bukkit.getWorld(key.world());
+            if (world == null) {
+                tickets.remove(key);
+                continue;
+            }
+            scheduler.region(world, key.x(), key.z()).execute(() -> {
+                Integer remaining = tickets.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+                if (remaining == null) {
+                    world.removePluginChunkTicket(key.x(), key.z(), plugin);
+                }
+            });
+        }
+    }
+
+    private record ChunkKey(UUID world, int x, int z) {
+    }
+}
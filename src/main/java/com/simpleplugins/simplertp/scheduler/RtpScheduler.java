@@ -0,0 +1,294 @@
+package com.simpleplugins.simplertp.scheduler;
+
+import com.simpleplugins.simplertp.config.RTPSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Central admission control for RTP work, so a burst of /rtp cannot collapse the TPS.
+ * <p>
+ * Every RTP request waits in a bounded queue until one of the max-concurrent-searches slots is
+ * free. Chunk loads started by searches, chunk loads that preload destinations and the final
+ * teleports are drained every tick within separate per-tick budgets, so a burst of preloads cannot
+ * starve the searches. While the server's average tick time is above max-mspt, no new searches are
+ * admitted (unless none is running) and only one chunk load of each kind per tick is allowed.
+ * <p>
+ * All methods must be called on the main thread (the global region thread on Folia).
+ */
+public final class RtpScheduler {
+
+    /** Ticks between queue position updates sent to waiting players. */
+    private static final int POSITION_UPDATE_INTERVAL = 40;
+
+    private final ArrayDeque<QueuedRequest<?>> queue = new ArrayDeque<>();
+    private final ArrayDeque<ChunkLoad> chunkLoads = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> preloads = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> teleports = new ArrayDeque<>();
+    private final Set<QueuedRequest<?>> running = new HashSet<>();
+    private final Executor chunkLoadExecutor = task -> chunkLoads.add(new ChunkLoad(task, null));
+    private final Executor preloadExecutor = preloads::add;
+    private final Executor teleportExecutor = teleports::add;
+
+    private final ServerScheduler scheduler;
+
+    private ServerScheduler.Task tickTask;
+    private int activeSearches;
+    private int ticks;
+
+    private int maxQueue;
+    private int maxConcurrentSearches;
+    private int chunkLoadsPerTick;
+    private int preloadsPerTick;
+    private int teleportsPerTick;
+    private double maxMspt;
+
+    public RtpScheduler(Plugin plugin) {
+        this.scheduler = new ServerScheduler(plugin);
+    }
+
+    /**
+     * Applies the scheduler settings of the snapshot and starts the tick task.
+     */
+    public void start(RTPSettings settings) {
+        stop();
+        RTPSettings.Scheduler config = settings.scheduler();
+        maxQueue = config.maxQueue();
+        maxConcurrentSearches = config.maxConcurrentSearches();
+        chunkLoadsPerTick = config.chunkLoadsPerTick();
+        preloadsPerTick = config.preloadChunksPerTick();
+        teleportsPerTick = config.teleportsPerTick();
+        maxMspt = config.maxMspt();
+        tickTask = scheduler.runTimer(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stops the tick task. Queued work stays queued until the next {@link #start(RTPSettings)}.
+     */
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Stops the tick task and fails every queued and running request with a
+     * {@link CancellationException}, so their callers refund them while the economy service still
+     * accepts work. Chunk loads and teleports waiting for their budget are dropped. Call on disable.
+     */
+    public void shutdown() {
+        stop();
+        CancellationException stopped = new CancellationException("The RTP scheduler was shut down");
+        List<QueuedRequest<?>> pending = new ArrayList<>(queue);
+        pending.addAll(running);
+        queue.clear();
+        chunkLoads.clear();
+        preloads.clear();
+        teleports.clear();
+        for (QueuedRequest<?> request : pending) {
+            request.result.completeExceptionally(stopped);
+        }
+    }
+
+    /**
+     * True when the queue cannot take another request.
+     */
+    public boolean isFull() {
+        // A request is only queued when it cannot start right away, also while overloaded
+        return queue.size() >= maxQueue && activeSearches >= searchLimit(isOverloaded());
+    }
+
+    /**
+     * Queues a search for the player (null for a job not tied to one player, like a mass scatter,
+     * which is never dropped from the queue). The job is started once a search slot is free and the slot is
+     * held until the job's future completes. onPosition receives the player's queue position (1-based)
+     * when they have to wait and whenever it changes. The returned future completes with the job's
+     * result, or exceptionally with a {@link CancellationException} if the player left while queued.
+     * When the queue is full the job is not queued and the future fails right away with a
+     * {@link RejectedExecutionException}; callers that checked {@link #isFull()} earlier (e.g. before
+     * an async charge) must still handle it, since other requests may have been queued meanwhile.
+     */
+    public <T> CompletableFuture<T> submit(Player player, Supplier<CompletableFuture<T>> job, IntConsumer onPosition) {
+        if (isFull()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("The RTP queue is full"));
+        }
+        QueuedRequest<T> request = new QueuedRequest<>(player, job, onPosition);
+        queue.addLast(request);
+        admit(isOverloaded());
+        if (!request.result.isDone() && queue.contains(request)) {
+            request.lastPosition = queue.size();
+            onPosition.accept(request.lastPosition);
+        }
+        return request.result;
+    }
+
+    /**
+     * Executor that runs chunk loads within the per-tick chunk-load budget.
+     */
+    public Executor chunkLoads() {
+        return chunkLoadExecutor;
+    }
+
+    /**
+     * Like {@link #chunkLoads()}, for the loads of a job that may be over before a load gets its
+     * turn, like a search whose other candidates already succeeded. Once owner is done, such a task
+     * still runs (so its future completes) but does not use up the budget.
+     */
+    public Executor chunkLoads(CompletableFuture<?> owner) {
+        return task -> chunkLoads.add(new ChunkLoad(task, owner));
+    }
+
+    /**
+     * Executor that runs chunk loads of destination preloads within their own per-tick budget.
+     */
+    public Executor preloads() {
+        return preloadExecutor;
+    }
+
+    /**
+     * Executor that runs teleports within the per-tick teleport budget.
+     */
+    public Executor teleports() {
+        return teleportExecutor;
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    public int activeSearches() {
+        return activeSearches;
+    }
+
+    private int searchLimit(boolean overloaded) {
+        return overloaded ? 1 : maxConcurrentSearches;
+    }
+
+    private boolean isOverloaded() {
+        return Bukkit.getAverageTickTime() > maxMspt;
+    }
+
+    private void tick() {
+        ticks++;
+        boolean overloaded = isOverloaded();
+
+        int loads = overloaded ? 1 : chunkLoadsPerTick;
+        while (loads > 0 && !chunkLoads.isEmpty()) {
+            ChunkLoad load = chunkLoads.pollFirst();
+            if (load.owner() == null || !load.owner().isDone()) {
+                loads--;
+            }
+            load.task().run();
+        }
+        int preloadLoads = overloaded ? 1 : preloadsPerTick;
+        for (int i = 0; i < preloadLoads && !preloads.isEmpty(); i++) {
+            preloads.pollFirst().run();
+        }
+        for (int i = 0; i < teleportsPerTick && !teleports.isEmpty(); i++) {
+            teleports.pollFirst().run();
+        }
+
+        dropOffline();
+        admit(overloaded);
+        if (ticks % POSITION_UPDATE_INTERVAL == 0) {
+            notifyPositions();
+        }
+    }
+
+    /**
+     * Starts queued jobs while search slots are free. When overloaded, a job is only started if no
+     * search is running, so the queue still makes progress.
+     */
+    private void admit(boolean overloaded) {
+        int limit = searchLimit(overloaded);
+        while (activeSearches < limit && !queue.isEmpty()) {
+            QueuedRequest<?> request = queue.pollFirst();
+            if (request.isAbandoned()) {
+                request.result.completeExceptionally(new CancellationException("Player left the RTP queue"));
+                continue;
+            }
+            activeSearches++;
+            running.add(request);
+            request.start(() -> {
+                activeSearches--;
+                running.remove(request);
+            });
+        }
+    }
+
+    private void dropOffline() {
+        Iterator<QueuedRequest<?>> it = queue.iterator();
+        while (it.hasNext()) {
+            QueuedRequest<?> request = it.next();
+            if (request.isAbandoned()) {
+                it.remove();
+                request.result.completeExceptionally(new CancellationException("Player left the RTP queue"));
+            }
+        }
+    }
+
+    private void notifyPositions() {
+        int position = 1;
+        for (QueuedRequest<?> request : queue) {
+            if (request.lastPosition != position) {
+                request.lastPosition = position;
+                request.onPosition.accept(position);
+            }
+            position++;
+        }
+    }
+
+    private record ChunkLoad(Runnable task, CompletableFuture<?> owner) {
+    }
+
+    private static final class QueuedRequest<T> {
+        final Player player;
+        final Supplier<CompletableFuture<T>> job;
+        final IntConsumer onPosition;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        int lastPosition;
+
+        QueuedRequest(Player player, Supplier<CompletableFuture<T>> job, IntConsumer onPosition) {
+            this.player = player;
+            this.job = job;
+            this.onPosition = onPosition;
+        }
+
+        boolean isAbandoned() {
+            return player != null && !player.isOnline();
+        }
+
+        void start(Runnable release) {
+            CompletableFuture<T> future;
+            try {
+                future = job.get();
+            } catch (RuntimeException e) {
+                release.run();
+                result.completeExceptionally(e);
+                return;
+            }
+            future.whenComplete((value, error) -> {
+                release.run();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.simpleplugins.simplertp.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs plugin work on the right thread on both Paper and Folia.
+ * <p>
+ * On Paper everything that touches the world runs on the main thread, as before. On Folia there
+ * is no main thread: the plugin's own state (queue, pool, cache, rejection maps) lives on the
+ * global region thread, chunk snapshots and tickets are taken on the region thread that owns the
+ * chunk, and players are only changed on their entity scheduler. Async work goes to the async
+ * scheduler on both.
+ * <p>
+ * The executors run tasks inline when the caller already is on the right thread, so chained
+ * futures do not wait a tick for nothing.
+ */
+public final class ServerScheduler {
+
+    private static final boolean FOLIA = detectFolia();
+
+    private final Plugin plugin;
+    private final Executor global;
+    private final Executor async;
+
+    public ServerScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        this.global = task -> {
+            if (isGlobalThread()) {
+                task.run();
+            } else if (FOLIA) {
+                Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+            } else {
+                Bukkit.getScheduler().runTask(plugin, task);
+            }
+        };
+        this.async = task -> {
+            if (FOLIA) {
+                Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+            } else {
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+            }
+        };
+    }
+
+    /**
+     * True when running on Folia's region-threaded server.
+     */
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    /**
+     * Executor for the plugin's shared state: the main thread on Paper, the global region thread
+     * on Folia.
+     */
+    public Executor global() {
+        return global;
+    }
+
+    /**
+     * Executor for work that must not block a server thread (scans, file I/O, HTTP).
+     */
+    public Executor async() {
+        return async;
+    }
+
+    /**
+     * Executor for work on the given chunk (snapshots, tickets): the thread of the region that
+     * owns it on Folia, the main thread on Paper.
+     */
+    public Executor region(World world, int chunkX, int chunkZ) {
+        if (!FOLIA) {
+            return global;
+        }
+        return task -> {
+            if (Bukkit.isOwnedByCurrentRegion(world, chunkX, chunkZ)) {
+                task.run();
+            } else {
+                Bukkit.getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+            }
+        };
+    }
+
+    /**
+     * Like {@link #region(World, int, int)}, for the chunk the location is in.
+     */
+    public Executor region(Location location) {
+        return region(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    /**
+     * Runs the task on the thread that owns the entity (the main thread on Paper). On Folia,
+     * retired (may be null) runs instead when the entity is removed before the task could run,
+     * e.g. a player who logged out.
+     */
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        if (!FOLIA) {
+            global.execute(task);
+            return;
+        }
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else if (!entity.getScheduler().execute(plugin, task, retired, 1L) && retired != null) {
+            retired.run();
+        }
+    }
+
+    /**
+     * Runs the task once on the global thread after the delay in ticks.
+     */
+    public Task runLater(Runnable task, long delayTicks) {
+        if (FOLIA) {
+            ScheduledTask scheduled = Bukkit.getGlobalRegionScheduler()
+                    .runDelayed(plugin, t -> task.run(), Math.max(1L, delayTicks));
+            return scheduled::cancel;
+        }
+        BukkitTask scheduled = Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
+        return scheduled::cancel;
+    }
+
+    /**
+     * Runs the task on the global thread every period ticks, the first time after delay ticks.
+     */
+    public Task runTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            ScheduledTask scheduled = Bukkit.getGlobalRegionScheduler()
+                    .runAtFixedRate(plugin, t -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+            return scheduled::cancel;
+        }
+        BukkitTask scheduled = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return scheduled::cancel;
+    }
+
+    /**
+     * Runs the task off the server threads every period ticks (50 ms each on Folia's async
+     * scheduler), the first time after delay ticks.
+     */
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            ScheduledTask scheduled = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, t -> task.run(),
+                    Math.max(0L, delayTicks) * 50L, Math.max(1L, periodTicks) * 50L, TimeUnit.MILLISECONDS);
+            return scheduled::cancel;
+        }
+        BukkitTask scheduled = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks);
+        return scheduled::cancel;
+    }
+
+    private static boolean isGlobalThread() {
+        return FOLIA ? Bukkit.isGlobalTickThread() : Bukkit.isPrimaryThread();
+    }
+
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A scheduled task that can be cancelled, on either scheduler.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void cancel();
+    }
+}
@@ -0,0 +1,87 @@
+package com.simpleplugins.simplertp.search;
+
+import org.bukkit.block.Biome;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Biome include and exclude rules from search.biomes, compiled once per reload.
+ * <p>
+ * Entries are biome keys such as {@code deep_dark} or {@code minecraft:deep_dark} and may use
+ * {@code *} as a wildcard (e.g. {@code *ocean*}). A biome is allowed when it matches the include
+ * list (or the list is empty) and does not match the exclude list. Verdicts are cached per biome,
+ * so the patterns are only evaluated once per biome; safe to use from any thread.
+ */
+public final class BiomeFilter {
+
+    private final List<Pattern> include;
+    private final List<Pattern> exclude;
+    private final Map<Biome, Boolean> verdicts = new ConcurrentHashMap<>();
+
+    private BiomeFilter(List<Pattern> include, List<Pattern> exclude) {
+        this.include = include;
+        this.exclude = exclude;
+    }
+
+    /**
+     * Compiles the rules from the search.biomes section (may be null for no filtering).
+     */
+    public static BiomeFilter compile(ConfigurationSection section) {
+        if (section == null) {
+            return new BiomeFilter(List.of(), List.of());
+        }
+        return new BiomeFilter(patterns(section.getStringList("include")), patterns(section.getStringList("exclude")));
+    }
+
+    private static List<Pattern> patterns(List<String> entries) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String entry : entries) {
+            String key = entry.toLowerCase(Locale.ROOT);
+            if (key.startsWith("minecraft:")) {
+                key = key.substring("minecraft:".length());
+            }
+            patterns.add(Pattern.compile(Pattern.quote(key).replace("*", "\\E.*\\Q")));
+        }
+        return List.copyOf(patterns);
+    }
+
+    /**
+     * True when any include or exclude rule is configured.
+     */
+    public boolean isActive() {
+        return !include.isEmpty() || !exclude.isEmpty();
+    }
+
+    public boolean allows(Biome biome) {
+        if (!isActive()) {
+            return true;
+        }
+        return verdicts.computeIfAbsent(biome, this::evaluate);
+    }
+
+    private boolean evaluate(Biome biome) {
+        // Non-vanilla namespaces keep their prefix so they can be matched explicitly
+        String key = "minecraft".equals(biome.getKey().getNamespace())
+                ? biome.getKey().getKey()
+                : biome.getKey().toString();
+        if (!include.isEmpty() && !matches(include, key)) {
+            return false;
+        }
+        return !matches(exclude, key);
+    }
+
+    private static boolean matches(List<Pattern> patterns, String key) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(key).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
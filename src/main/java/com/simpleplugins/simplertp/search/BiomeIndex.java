@@ -0,0 +1,67 @@
+package com.simpleplugins.simplertp.search;
+
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.BiomeProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Coarse per-world grid of biomes, used to reject candidates in filtered biomes before their chunk
+ * is loaded.
+ * <p>
+ * Biomes are taken from the world's {@link BiomeProvider} (or the vanilla provider for normal
+ * worlds), which computes them from the generator noise without loading or generating a chunk.
+ * One biome is kept per {@link #CELL_SIZE} block cell at sea level, so most candidates are
+ * answered from the grid; near biome borders the grid is approximate, which is why the found spot
+ * is checked again against the loaded chunk. Main thread only.
+ */
+final class BiomeIndex {
+
+    private static final int CELL_SHIFT = 5;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+    /** Cells kept per world before the grid is cleared, bounding memory on huge radii. */
+    private static final int MAX_CELLS = 1 << 16;
+
+    private final Map<UUID, Map<Long, Biome>> cells = new HashMap<>();
+
+    /**
+     * True when the filter does not allow the (approximate) biome at the column.
+     */
+    boolean rejects(World world, BiomeFilter filter, int x, int z) {
+        if (!filter.isActive()) {
+            return false;
+        }
+        Map<Long, Biome> grid = cells.computeIfAbsent(world.getUID(), k -> new HashMap<>());
+        int cellX = x >> CELL_SHIFT;
+        int cellZ = z >> CELL_SHIFT;
+        long key = ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+        Biome biome = grid.get(key);
+        if (biome == null) {
+            if (grid.size() >= MAX_CELLS) {
+                grid.clear();
+            }
+            biome = sample(world, (cellX << CELL_SHIFT) + CELL_SIZE / 2, (cellZ << CELL_SHIFT) + CELL_SIZE / 2);
+            if (biome == null) {
+                return false;
+            }
+            grid.put(key, biome);
+        }
+        return !filter.allows(biome);
+    }
+
+    private static Biome sample(World world, int x, int z) {
+        BiomeProvider provider = world.getBiomeProvider();
+        if (provider == null) {
+            provider = world.vanillaBiomeProvider();
+        }
+        try {
+            return provider.getBiome(world, x, world.getSeaLevel(), z);
+        } catch (RuntimeException e) {
+            // Custom generators may not support queries outside generation; fall back to checking loaded chunks
+            return null;
+        }
+    }
+}
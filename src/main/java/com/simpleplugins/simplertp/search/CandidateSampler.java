@@ -0,0 +1,112 @@
+package com.simpleplugins.simplertp.search;
+
+import com.simpleplugins.simplertp.config.RTPSettings;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws candidate columns for one search according to search.shape, search.min-radius,
+ * search.sequence and search.clip-to-border.
+ * <p>
+ * Points are spread uniformly over the configured area: a square, or a disk / ring whose radius is
+ * drawn as {@code sqrt(u)} so the outer part is not under-sampled. With clip-to-border, the area is
+ * cut to the world border when the search starts, so samples outside the border are never drawn
+ * and corners beyond a smaller border do not waste attempts. {@link #next(int[])} is only called
+ * on the main thread; {@link #contains(int, int)} is immutable and safe on any thread.
+ */
+final class CandidateSampler {
+
+    /** Draws at most this many points per sample before accepting one outside the clipped box. */
+    private static final int MAX_TRIES = 8;
+
+    private final RTPSettings settings;
+    private final HaltonSequence halton;
+    private final int centerX;
+    private final int centerZ;
+    private final int radius;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+    private final double[] point = new double[2];
+
+    /**
+     * @param halton sequence to draw from, or null to draw independent random points
+     */
+    CandidateSampler(RTPSettings settings, HaltonSequence halton, World world, int centerX, int centerZ, int radius) {
+        this.settings = settings;
+        this.halton = halton;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+
+        int minX = centerX - radius;
+        int minZ = centerZ - radius;
+        int maxX = centerX + radius;
+        int maxZ = centerZ + radius;
+        if (settings.clipToBorder()) {
+            WorldBorder border = world.getWorldBorder();
+            double half = border.getSize() / 2;
+            int borderMinX = (int) Math.ceil(border.getCenter().getX() - half);
+            int borderMinZ = (int) Math.ceil(border.getCenter().getZ() - half);
+            int borderMaxX = (int) Math.floor(border.getCenter().getX() + half) - 1;
+            int borderMaxZ = (int) Math.floor(border.getCenter().getZ() + half) - 1;
+            // Keep the configured area if it lies entirely outside the border
+            if (Math.max(minX, borderMinX) <= Math.min(maxX, borderMaxX)
+                    && Math.max(minZ, borderMinZ) <= Math.min(maxZ, borderMaxZ)) {
+                minX = Math.max(minX, borderMinX);
+                minZ = Math.max(minZ, borderMinZ);
+                maxX = Math.min(maxX, borderMaxX);
+                maxZ = Math.min(maxZ, borderMaxZ);
+            }
+        }
+        this.minX = minX;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Draws the next candidate and writes its block x and z to out[0] and out[1].
+     */
+    void next(int[] out) {
+        for (int tries = 0; ; tries++) {
+            if (halton != null) {
+                halton.next(point);
+            } else {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                point[0] = random.nextDouble();
+                point[1] = random.nextDouble();
+            }
+
+            int x;
+            int z;
+            if (settings.shape() == RTPSettings.Shape.DISK) {
+                double inner = Math.min(settings.minRadius(), radius);
+                double r = Math.sqrt(inner * inner + point[0] * ((double) radius * radius - inner * inner));
+                double angle = point[1] * 2 * Math.PI;
+                x = centerX + (int) Math.round(r * Math.cos(angle));
+                z = centerZ + (int) Math.round(r * Math.sin(angle));
+            } else {
+                x = minX + (int) (point[0] * (maxX - minX + 1));
+                z = minZ + (int) (point[1] * (maxZ - minZ + 1));
+            }
+
+            if (tries + 1 >= MAX_TRIES || contains(x, z)) {
+                out[0] = Math.max(minX, Math.min(maxX, x));
+                out[1] = Math.max(minZ, Math.min(maxZ, z));
+                return;
+            }
+        }
+    }
+
+    /**
+     * True when the block column lies in the (clipped) search area.
+     */
+    boolean contains(int x, int z) {
+        return x >= minX && x <= maxX && z >= minZ && z <= maxZ
+                && settings.isInArea(x - centerX, z - centerZ, radius);
+    }
+}
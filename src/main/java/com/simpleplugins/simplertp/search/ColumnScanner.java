@@ -0,0 +1,130 @@
+package com.simpleplugins.simplertp.search;
+
+import com.simpleplugins.simplertp.config.RTPSettings;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Safety checks for a single block column, run against an immutable {@link ChunkSnapshot} so they
+ * are safe to call from any thread. Coordinates passed in are local to the chunk (0-15).
+ * <p>
+ * On normal worlds the player stands on the highest block of the column. In the Nether (and in
+ * worlds listed in search.vertical-scan.worlds) the highest block is the roof, so the column is
+ * walked downward between the configured Y bounds instead, stopping at the first floor with two
+ * clear blocks above it.
+ */
+public final class ColumnScanner {
+
+    /** Returned by {@link #findStandingY} when the column has no safe standing position. */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private ColumnScanner() {
+    }
+
+    /**
+     * Returns the Y the player's feet would be at when standing in the column, or {@link #NONE} if
+     * the column has no safe spot. The player always spawns on top of a solid block (feet in the
+     * air block above ground), never floating in the air.
+     */
+    public static int findStandingY(ChunkSnapshot snapshot, Bounds bounds, int localX, int localZ) {
+        int y = bounds.downward()
+                ? scanDownward(snapshot, bounds, localX, localZ)
+                : surfaceY(snapshot, bounds, localX, localZ);
+        return y != NONE && isAllowedBiome(snapshot, bounds, localX, y, localZ) ? y : NONE;
+    }
+
+    private static int surfaceY(ChunkSnapshot snapshot, Bounds bounds, int localX, int localZ) {
+        int highestY = snapshot.getHighestBlockYAt(localX, localZ);
+        if (highestY <= bounds.minY()) {
+            return NONE;
+        }
+
+        // Player at y = highestY + 1: feet in air above solid block, always on a block
+        int y = highestY + 1;
+        return isSafe(snapshot, bounds, localX, y, localZ) ? y : NONE;
+    }
+
+    /**
+     * Walks the column from the top of the scan range down and returns the feet Y above the first
+     * floor that has two passable blocks above it. Every block is read once.
+     */
+    private static int scanDownward(ChunkSnapshot snapshot, Bounds bounds, int localX, int localZ) {
+        int top = Math.min(bounds.scanTop(), bounds.maxY() - 2);
+        int bottom = Math.max(bounds.scanBottom(), bounds.minY() + 1);
+        // Passable blocks directly above the current Y; nothing above the scan range is assumed clear
+        int clear = 0;
+        for (int y = top; y >= bottom; y--) {
+            Material type = snapshot.getBlockType(localX, y, localZ);
+            if (clear >= 2 && bounds.rules().isFloor(type) && isSafe(snapshot, bounds, localX, y + 1, localZ)) {
+                return y + 1;
+            }
+            clear = bounds.rules().isFeet(type) ? clear + 1 : 0;
+        }
+        return NONE;
+    }
+
+    /**
+     * Checks that the player spawns on a valid floor with feet and head space clear, according to
+     * the compiled {@link SafetyRules}. With neighbour checks, no hazard may be directly next to the
+     * feet or floor block; neighbours in other chunks are not visible in the snapshot and are skipped.
+     */
+    public static boolean isSafe(ChunkSnapshot snapshot, Bounds bounds, int localX, int y, int localZ) {
+        // Avoid spawning above world max height (and reading outside the snapshot)
+        if (y + 1 >= bounds.maxY() || y - 1 < bounds.minY()) return false;
+
+        SafetyRules rules = bounds.rules();
+        if (!rules.isFloor(snapshot.getBlockType(localX, y - 1, localZ))) return false;
+        if (!rules.isFeet(snapshot.getBlockType(localX, y, localZ))) return false;
+        if (!rules.isHead(snapshot.getBlockType(localX, y + 1, localZ))) return false;
+
+        if (rules.checkNeighbours()) {
+            return !hasHazardNextTo(snapshot, rules, localX, y, localZ)
+                    && !hasHazardNextTo(snapshot, rules, localX, y - 1, localZ);
+        }
+        return true;
+    }
+
+    /**
+     * Checks the biome at the feet against search.biomes. The snapshot must include biomes when a
+     * biome filter is active (see {@link Bounds#needsBiomes()}).
+     */
+    public static boolean isAllowedBiome(ChunkSnapshot snapshot, Bounds bounds, int localX, int y, int localZ) {
+        return !bounds.needsBiomes() || bounds.biomes().allows(snapshot.getBiome(localX, y, localZ));
+    }
+
+    private static boolean hasHazardNextTo(ChunkSnapshot snapshot, SafetyRules rules, int localX, int y, int localZ) {
+        return (localX > 0 && rules.isHazard(snapshot.getBlockType(localX - 1, y, localZ)))
+                || (localX < 15 && rules.isHazard(snapshot.getBlockType(localX + 1, y, localZ)))
+                || (localZ > 0 && rules.isHazard(snapshot.getBlockType(localX, y, localZ - 1)))
+                || (localZ < 15 && rules.isHazard(snapshot.getBlockType(localX, y, localZ + 1)));
+    }
+
+    /**
+     * World properties the checks need, captured on the main thread so workers never touch the World.
+     *
+     * @param downward   whether columns are walked downward instead of using the highest block
+     * @param scanTop    highest floor-or-air Y checked when walking downward
+     * @param scanBottom lowest floor Y checked when walking downward
+     * @param rules      block rules of the reload the search started with
+     * @param biomes     biome rules of the reload the search started with
+     */
+    public record Bounds(int minY, int maxY, boolean downward, int scanTop, int scanBottom,
+                         SafetyRules rules, BiomeFilter biomes) {
+
+        public static Bounds of(World world, RTPSettings settings) {
+            boolean downward = world.getEnvironment() == World.Environment.NETHER
+                    || settings.verticalScanWorlds().contains(world.getName());
+            return new Bounds(world.getMinHeight(), world.getMaxHeight(), downward,
+                    settings.verticalScanMaxY(), settings.verticalScanMinY(), settings.safetyRules(),
+                    settings.biomeFilter());
+        }
+
+        /**
+         * Whether snapshots checked with these bounds must be taken with biome data.
+         */
+        public boolean needsBiomes() {
+            return biomes.isActive();
+        }
+    }
+}
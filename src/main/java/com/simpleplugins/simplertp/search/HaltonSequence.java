@@ -0,0 +1,52 @@
+package com.simpleplugins.simplertp.search;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Two-dimensional Halton sequence (bases 2 and 3) used to spread RTP samples evenly.
+ * <p>
+ * Consecutive points fill the unit square without the clusters and gaps of independent random
+ * draws, and because one sequence is shared by all searches, successive /rtp calls continue where
+ * the previous one stopped instead of landing near each other. The sequence is scrambled with a
+ * random shift per server start (Cranley-Patterson rotation), so destinations are not the same
+ * after every restart. Not thread-safe; used on the main thread only.
+ */
+final class HaltonSequence {
+
+    private final double shiftU;
+    private final double shiftV;
+    private long index;
+
+    HaltonSequence() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        this.shiftU = random.nextDouble();
+        this.shiftV = random.nextDouble();
+        // Skip the first points, which are strongly correlated between the two bases
+        this.index = 20 + random.nextInt(1000);
+    }
+
+    /**
+     * Writes the next point in [0, 1) x [0, 1) to out[0] and out[1].
+     */
+    void next(double[] out) {
+        index++;
+        out[0] = wrap(radicalInverse(index, 2) + shiftU);
+        out[1] = wrap(radicalInverse(index, 3) + shiftV);
+    }
+
+    private static double radicalInverse(long i, int base) {
+        double inverseBase = 1.0 / base;
+        double factor = inverseBase;
+        double result = 0;
+        while (i > 0) {
+            result += factor * (i % base);
+            i /= base;
+            factor *= inverseBase;
+        }
+        return result;
+    }
+
+    private static double wrap(double value) {
+        return value >= 1 ? value - 1 : value;
+    }
+}
@@ -0,0 +1,160 @@
+package com.simpleplugins.simplertp.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Per-world record of how often samples in each area of the map were safe.
+ * <p>
+ * The world is split into square cells of {@code 2^cellShift} blocks. Each visited cell keeps a
+ * failure and a success counter (one unsigned byte each) in a fixed-size open-addressing table, so
+ * the map never grows beyond {@link #CAPACITY} cells. Counters are halved when one saturates, which
+ * lets old observations fade. When the table fills up it is cleared and rebuilt from new samples.
+ * <p>
+ * Not thread-safe; used from the main thread only.
+ */
+public final class RejectionMap {
+
+    static final int CAPACITY = 1 << 15;
+    private static final int MAX_LOAD = CAPACITY / 4 * 3;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int cellShift;
+    private final long[] keys = new long[CAPACITY];
+    private final byte[] failures = new byte[CAPACITY];
+    private final byte[] successes = new byte[CAPACITY];
+    private int size;
+
+    public RejectionMap(int cellShift) {
+        this.cellShift = cellShift;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Chooses a cell size so that a search area of the given radius spans about 128 cells per side,
+     * between one chunk (16 blocks) and 4096 blocks.
+     */
+    public static int cellShiftFor(int radius) {
+        int cellsPerSide = 128;
+        int cellSize = Math.max(1, (radius * 2) / cellsPerSide);
+        int shift = 32 - Integer.numberOfLeadingZeros(cellSize - 1);
+        return Math.max(4, Math.min(12, shift));
+    }
+
+    public int cellShift() {
+        return cellShift;
+    }
+
+    /**
+     * Probability that a sample at (x, z) should be kept, based on the cell's history.
+     * Unknown cells return 1. Uses Laplace smoothing and never drops below 5%, so cells with
+     * a bad history are still revisited now and then.
+     */
+    public double acceptance(int x, int z) {
+        int slot = find(key(x, z));
+        if (slot < 0) {
+            return 1.0;
+        }
+        int fail = failures[slot] & 0xFF;
+        int ok = successes[slot] & 0xFF;
+        return Math.max(0.05, (ok + 1.0) / (ok + fail + 2.0));
+    }
+
+    /**
+     * Records the outcome of a sample at (x, z).
+     */
+    public void record(int x, int z, boolean safe) {
+        long key = key(x, z);
+        int slot = find(key);
+        if (slot < 0) {
+            if (size >= MAX_LOAD) {
+                clear();
+            }
+            slot = insert(key);
+        }
+        byte[] counters = safe ? successes : failures;
+        if ((counters[slot] & 0xFF) == 0xFF) {
+            failures[slot] = (byte) ((failures[slot] & 0xFF) >>> 1);
+            successes[slot] = (byte) ((successes[slot] & 0xFF) >>> 1);
+        }
+        counters[slot]++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(failures, (byte) 0);
+        Arrays.fill(successes, (byte) 0);
+        size = 0;
+    }
+
+    /**
+     * Writes the cell shift followed by (key, failures, successes) for every cell.
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeByte(cellShift);
+        out.writeInt(size);
+        for (int i = 0; i < CAPACITY; i++) {
+            if (keys[i] != EMPTY) {
+                out.writeLong(keys[i]);
+                out.writeByte(failures[i]);
+                out.writeByte(successes[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a map written by {@link #write}. Returns null when it was built for a different cell size.
+     */
+    public static RejectionMap read(DataInputStream in, int expectedCellShift) throws IOException {
+        int shift = in.readUnsignedByte();
+        if (shift != expectedCellShift) {
+            return null;
+        }
+        RejectionMap map = new RejectionMap(shift);
+        int count = Math.min(in.readInt(), MAX_LOAD);
+        for (int i = 0; i < count; i++) {
+            int slot = map.insert(in.readLong());
+            map.failures[slot] = in.readByte();
+            map.successes[slot] = in.readByte();
+        }
+        return map;
+    }
+
+    private long key(int x, int z) {
+        return ((long) (x >> cellShift) << 32) | ((z >> cellShift) & 0xFFFFFFFFL);
+    }
+
+    private int find(long key) {
+        int slot = slotFor(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & (CAPACITY - 1);
+        }
+        return -1;
+    }
+
+    private int insert(long key) {
+        int slot = slotFor(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & (CAPACITY - 1);
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        return slot;
+    }
+
+    private static int slotFor(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 49) & (CAPACITY - 1);
+    }
+}
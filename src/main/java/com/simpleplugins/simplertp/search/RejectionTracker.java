@@ -0,0 +1,114 @@
+package com.simpleplugins.simplertp.search;
+
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Holds a {@link RejectionMap} per world and persists them in
+ * {@code plugins/SimpleRTP/rejections/<world-uuid>.bin}, so the search keeps steering away from
+ * known-unsafe areas (oceans, lava lakes) across restarts. Maps are small enough to be written in
+ * one go on disable and read back asynchronously on enable.
+ */
+public final class RejectionTracker {
+
+    private final Plugin plugin;
+    private final ServerScheduler scheduler;
+    private final Map<UUID, RejectionMap> maps = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+    private int cellShift;
+
+    public RejectionTracker(Plugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = new ServerScheduler(plugin);
+    }
+
+    /**
+     * Applies the settings of the snapshot. Maps built for another radius are discarded; saved maps
+     * are loaded asynchronously.
+     */
+    public void start(RTPSettings settings) {
+        enabled = settings.learnRejections();
+        int shift = RejectionMap.cellShiftFor(settings.radius());
+        if (shift != cellShift) {
+            maps.clear();
+            cellShift = shift;
+        }
+        if (enabled) {
+            scheduler.async().execute(this::loadAll);
+        }
+    }
+
+    /**
+     * Saves all maps to disk. Blocks; call on disable.
+     */
+    public void save() {
+        File folder = folder();
+        if (maps.isEmpty() || (!folder.isDirectory() && !folder.mkdirs())) {
+            return;
+        }
+        for (Map.Entry<UUID, RejectionMap> entry : maps.entrySet()) {
+            File file = new File(folder, entry.getKey() + ".bin");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                entry.getValue().write(out);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to save rejection map for world " + entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Rejection map for the world, or null when learning is disabled.
+     */
+    public RejectionMap get(World world) {
+        if (!enabled) {
+            return null;
+        }
+        return maps.computeIfAbsent(world.getUID(), id -> new RejectionMap(cellShift));
+    }
+
+    private void loadAll() {
+        File[] existing = folder().listFiles((dir, name) -> name.endsWith(".bin"));
+        if (existing == null) {
+            return;
+        }
+        for (File f : existing) {
+            UUID worldId;
+            try {
+                worldId = UUID.fromString(f.getName().substring(0, f.getName().length() - 4));
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+                RejectionMap map = RejectionMap.read(in, cellShift);
+                if (map != null) {
+                    // Maps are used on the main (global) thread, so publish the loaded one there. Keep a map that
+                    // already collected samples since startup instead of overwriting it
+                    scheduler.global().execute(() ->
+                            maps.merge(worldId, map, (current, loaded) -> current.size() == 0 ? loaded : current));
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to load rejection map " + f.getName(), e);
+            }
+        }
+    }
+
+    private File folder() {
+        return new File(plugin.getDataFolder(), "rejections");
+    }
+}
@@ -0,0 +1,372 @@
+package com.simpleplugins.simplertp.search;
+
+import com.simpleplugins.simplertp.SimpleRTP;
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.metrics.RtpAttemptEvent;
+import com.simpleplugins.simplertp.metrics.RtpMetrics;
+import com.simpleplugins.simplertp.metrics.RtpRequestEvent;
+import com.simpleplugins.simplertp.scheduler.RtpScheduler;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Searches for a safe RTP destination without blocking the main thread.
+ * <p>
+ * Each candidate chunk is loaded (or generated) through Paper's async chunk API. Once loaded, a
+ * {@link ChunkSnapshot} is taken on the main thread (on Folia, the thread of the region that owns
+ * the chunk) and the columns are checked against it by
+ * {@link ColumnScanner} on an async worker, so one snapshot covers several candidate columns of
+ * the same chunk. Up to search.parallel-candidates chunks are evaluated at once; the first safe
+ * location wins and new candidates are started until one is found or {@link #MAX_ATTEMPTS} is
+ * reached. The returned future is completed on the main thread, with {@code null} when no safe
+ * location was found. On Folia, "main thread" means the global region thread.
+ * <p>
+ * Candidates are drawn by a {@link CandidateSampler}, evenly spread over the configured area
+ * (a low-discrepancy {@link HaltonSequence} by default). Outcomes are recorded in the world's
+ * {@link RejectionMap}, and sampling steers away from areas where most samples failed.
+ */
+public final class SafeLocationFinder {
+
+    public static final int MAX_ATTEMPTS = 20;
+    /** Upper bound for search.parallel-candidates, so one /rtp cannot flood the chunk system. */
+    public static final int MAX_PARALLEL = 8;
+    /** Samples redrawn at most per candidate when the rejection map advises against them. */
+    private static final int MAX_REDRAWS = 16;
+    /** Redraw budget while a biome filter is active, since filtered biomes can cover most of the map. */
+    private static final int MAX_BIOME_REDRAWS = 64;
+
+    private final SimpleRTP plugin;
+    private final RejectionTracker rejections;
+    private final SpacingIndex spacing;
+    private final RtpMetrics metrics;
+    private final RtpScheduler rtpScheduler;
+    private final ServerScheduler scheduler;
+    private final Executor mainThread;
+    private final Executor async;
+    private final HaltonSequence halton = new HaltonSequence();
+    private final BiomeIndex biomeIndex = new BiomeIndex();
+
+    /**
+     * @param rtpScheduler scheduler whose chunk-load budget every candidate chunk load is started in
+     */
+    public SafeLocationFinder(SimpleRTP plugin, RejectionTracker rejections, SpacingIndex spacing, RtpMetrics metrics,
+                              RtpScheduler rtpScheduler) {
+        this.plugin = plugin;
+        this.rejections = rejections;
+        this.spacing = spacing;
+        this.metrics = metrics;
+        this.rtpScheduler = rtpScheduler;
+        this.scheduler = new ServerScheduler(plugin);
+        this.mainThread = scheduler.global();
+        this.async = scheduler.async();
+    }
+
+    /**
+     * Starts an asynchronous search in the configured area (search.shape, search.min-radius) of the
+     * given radius around the center.
+     */
+    public CompletableFuture<Location> find(World world, int centerX, int centerZ, int radius) {
+        return find(world, centerX, centerZ, radius, null);
+    }
+
+    /**
+     * Like {@link #find(World, int, int, int)}, adding each candidate attempt to the request's JFR
+     * event (may be null) while that event is recorded.
+     */
+    public CompletableFuture<Location> find(World world, int centerX, int centerZ, int radius, RtpRequestEvent request) {
+        int parallel = plugin.getSettings().parallelCandidates();
+        return search(world, centerX, centerZ, radius, 1, 0, parallel, request)
+                .thenApply(found -> found.isEmpty() ? null : found.get(0));
+    }
+
+    /**
+     * Searches up to count safe locations at least minSpacing blocks apart in one batched pass, for
+     * scattering many players at once. Samples too close to an already found location are redrawn
+     * before their chunk is loaded. Gives up after count * {@link #MAX_ATTEMPTS} candidates, so the
+     * returned list (completed on the main thread) may hold fewer than count locations.
+     */
+    public CompletableFuture<List<Location>> findMany(World world, int centerX, int centerZ, int radius,
+                                                      int count, int minSpacing, int parallel) {
+        return search(world, centerX, centerZ, radius, count, minSpacing, parallel, null);
+    }
+
+    private CompletableFuture<List<Location>> search(World world, int centerX, int centerZ, int radius, int count,
+                                                     int minSpacing, int parallel, RtpRequestEvent request) {
+        SearchArea area = area(world, centerX, centerZ, radius);
+        Search search = new Search(world, ColumnScanner.Bounds.of(world, plugin.getSettings()), area, rejections.get(world),
+                Math.max(1, count), (long) minSpacing * minSpacing, request);
+        int inFlight = Math.max(1, Math.min(MAX_PARALLEL, parallel));
+        for (int i = 0; i < inFlight; i++) {
+            launch(search);
+        }
+        return search.result;
+    }
+
+    /**
+     * Starts one candidate: async chunk load, snapshot on the chunk's thread, scan on a worker.
+     * When it fails another candidate is launched, so the configured number of candidates stay in
+     * flight until enough safe locations complete the search.
+     */
+    private void launch(Search search) {
+        search.started++;
+        search.inFlight++;
+        int attemptNumber = search.started;
+        // Only allocated while JFR records the attempt, or the request's event that sums up its waits
+        RtpAttemptEvent attempt = search.request != null || RtpAttemptEvent.isRecorded() ? new RtpAttemptEvent() : null;
+        if (attempt != null) {
+            attempt.begin();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SearchArea area = search.area;
+        RejectionMap map = search.rejections;
+        int[] sample = new int[2];
+        // Rejection sampling: samples in filtered biomes, in cells with a bad history, too close to a
+        // location already found or to other players and recent destinations are mostly redrawn
+        // (no chunk I/O), while cells with a good history keep the even spread
+        BiomeFilter biomes = search.bounds.biomes();
+        int maxRedraws = biomes.isActive() ? MAX_BIOME_REDRAWS : MAX_REDRAWS;
+        int redraws = 0;
+        long sampleStart = System.nanoTime();
+        do {
+            area.sampler().next(sample);
+        } while (redraws++ < maxRedraws
+                && (search.tooClose(sample[0], sample[1])
+                || spacing.isCrowded(search.world, sample[0], sample[1])
+                || biomeIndex.rejects(search.world, biomes, sample[0], sample[1])
+                || (map != null && random.nextDouble() >= map.acceptance(sample[0], sample[1]))));
+        int sampleX = sample[0];
+        int sampleZ = sample[1];
+        int redrawn = redraws - 1;
+        World world = search.world;
+        metrics.record(world, RtpMetrics.Phase.SAMPLING, sampleStart);
+        metrics.count(world, RtpMetrics.Counter.CANDIDATES);
+
+        // The snapshot must be taken by the thread that owns the chunk: the main thread, where Paper
+        // completes chunk futures, or the chunk's region thread on Folia. Once the search is complete,
+        // late chunks are neither snapshotted nor scanned; they were loaded without a plugin ticket
+        // and simply unload again.
+        long loadStart = System.nanoTime();
+        int chunkX = sampleX >> 4;
+        int chunkZ = sampleZ >> 4;
+        loadChunk(world, chunkX, chunkZ, search.result)
+                .thenApplyAsync(chunk -> {
+                    if (chunk == null) {
+                        // The search completed while the load waited for its budget
+                        return null;
+                    }
+                    metrics.record(world, RtpMetrics.Phase.CHUNK_LOAD, loadStart);
+                    if (attempt != null) {
+                        attempt.chunkLoaded(System.nanoTime() - loadStart);
+                    }
+                    return search.result.isDone()
+                            ? null
+                            : chunk.getChunkSnapshot(true, search.bounds.needsBiomes(), false);
+                }, scheduler.region(world, chunkX, chunkZ))
+                .thenApplyAsync(snapshot -> {
+                    if (snapshot == null) {
+                        return null;
+                    }
+                    long scanStart = System.nanoTime();
+                    int[] found = scanChunk(snapshot, search.bounds, area, sampleX, sampleZ);
+                    metrics.record(world, RtpMetrics.Phase.SAFETY, scanStart);
+                    return found;
+                }, async)
+                .whenCompleteAsync((found, error) -> {
+                    search.inFlight--;
+                    if (search.request != null) {
+                        search.request.attempt(attempt.chunkLoadWait());
+                    }
+                    if (search.result.isDone()) {
+                        if (attempt != null) {
+                            attempt.finish(world.getName(), sampleX, sampleZ, attemptNumber, redrawn, "search-complete");
+                        }
+                        return;
+                    }
+                    if (error == null && map != null) {
+                        map.record(sampleX, sampleZ, found != null);
+                    }
+                    boolean safe = error == null && found != null && !search.tooClose(found[0], found[2]);
+                    if (attempt != null) {
+                        attempt.finish(world.getName(), sampleX, sampleZ, attemptNumber, redrawn,
+                                safe ? "safe" : error != null ? "error" : found == null ? "unsafe" : "too-close");
+                    }
+                    if (safe) {
+                        search.found.add(new Location(search.world, found[0] + 0.5, found[1], found[2] + 0.5));
+                        if (search.found.size() >= search.count) {
+                            search.result.complete(search.found);
+                            return;
+                        }
+                    }
+                    if (search.started < MAX_ATTEMPTS * search.count) {
+                        launch(search);
+                    } else if (search.inFlight == 0) {
+                        search.result.complete(search.found);
+                    }
+                }, mainThread);
+    }
+
+    /**
+     * Checks the sampled column and then up to columnsPerChunk - 1 more random columns of the same
+     * chunk that lie within the search area. Runs off the main thread against the snapshot.
+     *
+     * @return {x, y, z} of the first safe standing position, or null
+     */
+    static int[] scanChunk(ChunkSnapshot snapshot, ColumnScanner.Bounds bounds, SearchArea area, int x, int z) {
+        int y = ColumnScanner.findStandingY(snapshot, bounds, x & 15, z & 15);
+        if (y != ColumnScanner.NONE) {
+            return new int[]{x, y, z};
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int chunkBaseX = x & ~15;
+        int chunkBaseZ = z & ~15;
+        for (int i = 1; i < area.columnsPerChunk(); i++) {
+            int cx = chunkBaseX + random.nextInt(16);
+            int cz = chunkBaseZ + random.nextInt(16);
+            if (!area.sampler().contains(cx, cz)) {
+                continue;
+            }
+            y = ColumnScanner.findStandingY(snapshot, bounds, cx & 15, cz & 15);
+            if (y != ColumnScanner.NONE) {
+                return new int[]{cx, y, cz};
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks a few random columns of a chunk that is already loaded, without loading anything, for
+     * callers that loaded the chunk for another reason (e.g. pre-generation). Only columns in the
+     * configured area of the given radius around the center are considered. The outcome is recorded in the world's
+     * rejection map, and the returned future is completed on the main thread.
+     */
+    public CompletableFuture<Location> scanLoaded(Chunk chunk, int centerX, int centerZ, int radius) {
+        World world = chunk.getWorld();
+        SearchArea area = area(world, centerX, centerZ, radius);
+        ColumnScanner.Bounds bounds = ColumnScanner.Bounds.of(world, plugin.getSettings());
+        RejectionMap map = rejections.get(world);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int x = (chunk.getX() << 4) + random.nextInt(16);
+        int z = (chunk.getZ() << 4) + random.nextInt(16);
+        if (!area.sampler().contains(x, z)) {
+            // Mostly chunks on the edge of (or outside) the area; not worth more tries
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.supplyAsync(() -> chunk.getChunkSnapshot(true, bounds.needsBiomes(), false),
+                        scheduler.region(world, chunk.getX(), chunk.getZ()))
+                .thenApplyAsync(snapshot -> scanChunk(snapshot, bounds, area, x, z), async)
+                .handleAsync((found, error) -> {
+                    if (error != null) {
+                        return null;
+                    }
+                    if (map != null) {
+                        map.record(x, z, found != null);
+                    }
+                    return found == null ? null : new Location(world, found[0] + 0.5, found[1], found[2] + 0.5);
+                }, mainThread);
+    }
+
+    /**
+     * Re-validates a previously found location: loads its chunk asynchronously and checks the
+     * blocks again, so stale entries (terrain changed, outside the world border, biome no longer
+     * allowed) are rejected.
+     * The returned future is completed on the main thread.
+     */
+    public CompletableFuture<Boolean> recheck(Location loc) {
+        World world = loc.getWorld();
+        if (world == null || !world.getWorldBorder().isInside(loc)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        ColumnScanner.Bounds bounds = ColumnScanner.Bounds.of(world, plugin.getSettings());
+        int x = loc.getBlockX();
+        int y = loc.getBlockY();
+        int z = loc.getBlockZ();
+        return loadChunk(world, x >> 4, z >> 4, null)
+                .thenApplyAsync(chunk -> chunk.getChunkSnapshot(false, bounds.needsBiomes(), false),
+                        scheduler.region(world, x >> 4, z >> 4))
+                .thenApplyAsync(snapshot -> ColumnScanner.isSafe(snapshot, bounds, x & 15, y, z & 15)
+                        && ColumnScanner.isAllowedBiome(snapshot, bounds, x & 15, y, z & 15), async)
+                .handleAsync((safe, error) -> error == null && Boolean.TRUE.equals(safe), mainThread);
+    }
+
+    /**
+     * Loads the chunk within the scheduler's chunk-load budget. When owner (may be null) is done by
+     * the time the load gets its turn, the chunk is not loaded (nor generated) and the future
+     * completes with null, so candidates of a finished search neither use up the budget nor cause
+     * generation nobody needs.
+     */
+    private CompletableFuture<Chunk> loadChunk(World world, int chunkX, int chunkZ, CompletableFuture<?> owner) {
+        return CompletableFuture.supplyAsync(() -> {
+                    if (owner != null && owner.isDone()) {
+                        return CompletableFuture.<Chunk>completedFuture(null);
+                    }
+                    metrics.count(world, RtpMetrics.Counter.CHUNK_LOADS);
+                    return world.getChunkAtAsync(chunkX, chunkZ);
+                }, owner != null ? rtpScheduler.chunkLoads(owner) : rtpScheduler.chunkLoads())
+                .thenCompose(future -> future);
+    }
+
+    private SearchArea area(World world, int centerX, int centerZ, int radius) {
+        RTPSettings settings = plugin.getSettings();
+        HaltonSequence sequence = settings.haltonSampling() ? halton : null;
+        return new SearchArea(new CandidateSampler(settings, sequence, world, centerX, centerZ, radius),
+                settings.columnsPerChunk());
+    }
+
+    record SearchArea(CandidateSampler sampler, int columnsPerChunk) {
+    }
+
+    /**
+     * State of one search. Counters are only touched on the main (global) thread.
+     */
+    private static final class Search {
+        final World world;
+        final ColumnScanner.Bounds bounds;
+        final SearchArea area;
+        final RejectionMap rejections;
+        final int count;
+        final long minSpacingSq;
+        final List<Location> found = new ArrayList<>();
+        final CompletableFuture<List<Location>> result = new CompletableFuture<>();
+        final RtpRequestEvent request;
+        int started;
+        int inFlight;
+
+        Search(World world, ColumnScanner.Bounds bounds, SearchArea area, RejectionMap rejections, int count, long minSpacingSq,
+               RtpRequestEvent request) {
+            this.world = world;
+            this.bounds = bounds;
+            this.area = area;
+            this.rejections = rejections;
+            this.count = count;
+            this.minSpacingSq = minSpacingSq;
+            // A request event nobody records does not need its attempts counted
+            this.request = request != null && request.isEnabled() ? request : null;
+        }
+
+        boolean tooClose(int x, int z) {
+            if (minSpacingSq <= 0) {
+                return false;
+            }
+            for (Location loc : found) {
+                double dx = loc.getX() - x;
+                double dz = loc.getZ() - z;
+                if (dx * dx + dz * dz < minSpacingSq) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.simpleplugins.simplertp.search;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Block rules for a safe standing spot, compiled once per reload into a flat table indexed by
+ * {@link Material#ordinal()}, so checking a candidate is a few array reads without allocation.
+ * <p>
+ * By default the floor must be solid and the feet and head blocks passable, and none of the three
+ * may be a hazard. The search.safety allow and deny lists override these defaults per position;
+ * entries are material names and may use {@code *} as a wildcard (e.g. {@code *_LEAVES}).
+ * With check-neighbours, hazards next to the feet and floor blocks also make the spot unsafe.
+ */
+public final class SafetyRules {
+
+    private static final byte FLOOR = 1;
+    private static final byte FEET = 2;
+    private static final byte HEAD = 4;
+    private static final byte HAZARD = 8;
+
+    private static final List<String> DEFAULT_HAZARDS = List.of(
+            "LAVA", "FIRE", "SOUL_FIRE", "MAGMA_BLOCK", "CAMPFIRE", "SOUL_CAMPFIRE", "CACTUS",
+            "POWDER_SNOW", "WATER", "SWEET_BERRY_BUSH", "WITHER_ROSE", "POINTED_DRIPSTONE", "COBWEB");
+
+    private final byte[] flags;
+    private final boolean checkNeighbours;
+
+    private SafetyRules(byte[] flags, boolean checkNeighbours) {
+        this.flags = flags;
+        this.checkNeighbours = checkNeighbours;
+    }
+
+    /**
+     * Compiles the rules from the search.safety section (may be null for the defaults). Unknown
+     * material names are reported once here.
+     */
+    public static SafetyRules compile(ConfigurationSection section, Logger logger) {
+        Material[] materials = Material.values();
+        byte[] flags = new byte[materials.length];
+        for (Material material : materials) {
+            if (material.isLegacy()) {
+                continue;
+            }
+            if (material.isSolid()) {
+                flags[material.ordinal()] |= FLOOR;
+            } else {
+                flags[material.ordinal()] |= FEET | HEAD;
+            }
+        }
+
+        List<String> hazards = section != null && section.isList("hazards")
+                ? section.getStringList("hazards")
+                : DEFAULT_HAZARDS;
+        apply(flags, hazards, HAZARD, true, logger);
+        if (section != null) {
+            apply(flags, section.getStringList("floor-allow"), FLOOR, true, logger);
+            apply(flags, section.getStringList("floor-deny"), FLOOR, false, logger);
+            apply(flags, section.getStringList("feet-allow"), FEET, true, logger);
+            apply(flags, section.getStringList("feet-deny"), FEET, false, logger);
+            apply(flags, section.getStringList("head-allow"), HEAD, true, logger);
+            apply(flags, section.getStringList("head-deny"), HEAD, false, logger);
+        }
+        // Hazards are never allowed, whatever the allow lists say
+        for (int i = 0; i < flags.length; i++) {
+            if ((flags[i] & HAZARD) != 0) {
+                flags[i] &= ~(FLOOR | FEET | HEAD);
+            }
+        }
+        boolean checkNeighbours = section != null && section.getBoolean("check-neighbours", false);
+        return new SafetyRules(flags, checkNeighbours);
+    }
+
+    private static void apply(byte[] flags, List<String> patterns, byte flag, boolean set, Logger logger) {
+        Material[] materials = Material.values();
+        for (String pattern : patterns) {
+            Pattern regex = Pattern.compile(Pattern.quote(pattern.toUpperCase(Locale.ROOT)).replace("*", "\\E.*\\Q"));
+            boolean matched = false;
+            for (Material material : materials) {
+                if (!material.isLegacy() && regex.matcher(material.name()).matches()) {
+                    matched = true;
+                    if (set) {
+                        flags[material.ordinal()] |= flag;
+                    } else {
+                        flags[material.ordinal()] &= (byte) ~flag;
+                    }
+                }
+            }
+            if (!matched) {
+                logger.warning("Unknown material in search.safety: " + pattern);
+            }
+        }
+    }
+
+    public boolean isFloor(Material material) {
+        return (flags[material.ordinal()] & FLOOR) != 0;
+    }
+
+    public boolean isFeet(Material material) {
+        return (flags[material.ordinal()] & FEET) != 0;
+    }
+
+    public boolean isHead(Material material) {
+        return (flags[material.ordinal()] & HEAD) != 0;
+    }
+
+    public boolean isHazard(Material material) {
+        return (flags[material.ordinal()] & HAZARD) != 0;
+    }
+
+    public boolean checkNeighbours() {
+        return checkNeighbours;
+    }
+}
@@ -0,0 +1,159 @@
+package com.simpleplugins.simplertp.search;
+
+import com.simpleplugins.simplertp.config.RTPSettings;
+import com.simpleplugins.simplertp.scheduler.ServerScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Grid index of recent RTP destinations and current player positions per world, so searches can
+ * spread players (and the chunks they keep loaded) over the map instead of stacking them.
+ * <p>
+ * Points are bucketed into square cells of spacing.min-distance blocks, so a query only looks at
+ * the 3x3 cells around the candidate. Player positions are rebuilt from the online players every
+ * two seconds; destinations are added when a player is sent there and expire after
+ * spacing.destination-ttl seconds. All methods must be called on the main thread (the global region
+ * thread on Folia).
+ */
+public final class SpacingIndex {
+
+    /** Ticks between rebuilds of the player position grid. */
+    private static final long PLAYER_REFRESH_INTERVAL = 40L;
+
+    private final Plugin plugin;
+    private final Map<UUID, Map<Long, List<Point>>> players = new HashMap<>();
+    private final Map<UUID, Map<Long, List<Point>>> destinations = new HashMap<>();
+
+    private ServerScheduler.Task refreshTask;
+    private boolean enabled;
+    private int minDistance;
+    private long ttlMillis;
+
+    public SpacingIndex(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Applies the spacing settings of the snapshot and restarts the player position refresh.
+     */
+    public void start(RTPSettings settings) {
+        stop();
+        RTPSettings.Spacing config = settings.spacing();
+        int distance = config.minDistance();
+        enabled = config.enabled();
+        ttlMillis = config.destinationTtlSeconds() * 1000L;
+        if (distance != minDistance) {
+            // Cell size changed, so all keys are stale
+            destinations.clear();
+        }
+        minDistance = distance;
+        players.clear();
+        if (!enabled) {
+            destinations.clear();
+            return;
+        }
+        refreshTask = new ServerScheduler(plugin).runTimer(this::refreshPlayers, 1L, PLAYER_REFRESH_INTERVAL);
+    }
+
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+    }
+
+    /**
+     * Remembers a destination a player is being sent to, so following searches keep away from it.
+     */
+    public void recordDestination(Location loc) {
+        World world = loc.getWorld();
+        if (!enabled || world == null || ttlMillis == 0) {
+            return;
+        }
+        Map<Long, List<Point>> grid = destinations.computeIfAbsent(world.getUID(), k -> new HashMap<>());
+        add(grid, loc.getBlockX(), loc.getBlockZ(), System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * True when a player or a recent destination is closer than spacing.min-distance to the column.
+     */
+    public boolean isCrowded(World world, int x, int z) {
+        if (!enabled) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        return isNear(players.get(world.getUID()), x, z, now) || isNear(destinations.get(world.getUID()), x, z, now);
+    }
+
+    private boolean isNear(Map<Long, List<Point>> grid, int x, int z, long now) {
+        if (grid == null || grid.isEmpty()) {
+            return false;
+        }
+        long minDistanceSq = (long) minDistance * minDistance;
+        int cellX = Math.floorDiv(x, minDistance);
+        int cellZ = Math.floorDiv(z, minDistance);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                List<Point> cell = grid.get(key(cellX + dx, cellZ + dz));
+                if (cell == null) {
+                    continue;
+                }
+                for (Point point : cell) {
+                    long ox = point.x() - x;
+                    long oz = point.z() - z;
+                    if (point.expiresAt() > now && ox * ox + oz * oz < minDistanceSq) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds the player grids and drops expired destinations.
+     */
+    private void refreshPlayers() {
+        players.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            // On Folia this reads positions owned by other regions; slightly stale is fine for spacing
+            Location loc = player.getLocation();
+            Map<Long, List<Point>> grid = players.computeIfAbsent(player.getWorld().getUID(), k -> new HashMap<>());
+            add(grid, loc.getBlockX(), loc.getBlockZ(), Long.MAX_VALUE);
+        }
+
+        long now = System.currentTimeMillis();
+        for (Map<Long, List<Point>> grid : destinations.values()) {
+            Iterator<List<Point>> it = grid.values().iterator();
+            while (it.hasNext()) {
+                List<Point> cell = it.next();
+                cell.removeIf(point -> point.expiresAt() <= now);
+                if (cell.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void add(Map<Long, List<Point>> grid, int x, int z, long expiresAt) {
+        long key = key(Math.floorDiv(x, minDistance), Math.floorDiv(z, minDistance));
+        grid.computeIfAbsent(key, k -> new ArrayList<>(2)).add(new Point(x, z, expiresAt));
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private record Point(int x, int z, long expiresAt) {
+    }
+}